@@ -0,0 +1,126 @@
+package com.stocktrading.insertbench;
+
+import com.stocktrading.StockTradingApplication;
+import com.stocktrading.model.*;
+import com.stocktrading.repository.ExperimentSessionRepository;
+import com.stocktrading.repository.StockRepository;
+import com.stocktrading.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// Measures decision and transaction insert throughput. Boots the app without a web server against
+// a throwaway in-memory H2 database unless a datasource is given, since it writes tens of
+// thousands of rows that the dashboard counters, analytics and leaderboard never hear about.
+//
+// Arguments are application properties as key=value:
+//
+//   mvn -Pinsertbench verify
+//   mvn -Pinsertbench verify -Dinsertbench.args="spring.jpa.properties.hibernate.jdbc.batch_size=1"
+//   mvn -Pinsertbench verify -Dinsertbench.args="spring.datasource.url=jdbc:h2:mem:insertbench;MODE=MySQL;DATABASE_TO_LOWER=TRUE"
+
+public class InsertBenchmark {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    private InsertBenchmark(ConfigurableApplicationContext context) {
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        this.transactionManager = context.getBean(PlatformTransactionManager.class);
+    }
+
+    public static void main(String[] args) {
+        List<String> properties = new ArrayList<>();
+        for (String arg : args) {
+            properties.add(arg.startsWith("--") ? arg : "--" + arg);
+        }
+        if (properties.stream().noneMatch(arg -> arg.startsWith("--spring.datasource.url="))) {
+            properties.add("--spring.datasource.url=jdbc:h2:mem:insertbench");
+        }
+        properties.addAll(List.of("--spring.main.web-application-type=none", "--app.montecarlo.paths=1",
+            "--logging.level.root=WARN"));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StockTradingApplication.class)
+                .run(properties.toArray(new String[0]))) {
+            new InsertBenchmark(context).run(context);
+        }
+    }
+
+    private void run(ConfigurableApplicationContext context) {
+        int rows = context.getEnvironment().getProperty("app.benchmark.rows", Integer.class, 20000);
+        int batchSize = context.getEnvironment().getProperty("spring.jpa.properties.hibernate.jdbc.batch_size", Integer.class, 0);
+
+        User user = context.getBean(UserRepository.class).findByUsername("user1")
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        StockRepository stockRepository = context.getBean(StockRepository.class);
+        Stock stock = stockRepository.findBySymbol("BENCH")
+            .orElseGet(() -> stockRepository.save(new Stock("BENCH", "Benchmark Stock", 100.0)));
+        ExperimentSession session = context.getBean(ExperimentSessionRepository.class).save(new ExperimentSession(user));
+
+        IntFunction<Object> decision = i -> {
+            ExperimentDecision d = new ExperimentDecision();
+            d.setSession(entityManager.getReference(ExperimentSession.class, session.getId()));
+            d.setStockIndex(i / 10 % 10);
+            d.setDayNumber(i % 10);
+            d.setAction("HOLD");
+            d.setPrice(100.0);
+            d.setQuantity(0);
+            d.setCapitalBeforeMicros(Money.of(100000.0));
+            d.setCapitalAfterMicros(Money.of(100000.0));
+            d.setSharesBefore(0);
+            d.setSharesAfter(0);
+            return d;
+        };
+
+        IntFunction<Object> transaction = i -> new Transaction(
+            entityManager.getReference(User.class, user.getId()),
+            entityManager.getReference(Stock.class, stock.getId()),
+            i % 2 == 0 ? "BUY" : "SELL", 10, Money.of(100.0));
+
+        System.out.println("\n========================================");
+        System.out.println("INSERT BENCHMARK");
+        System.out.println("Datasource: " + context.getEnvironment().getProperty("spring.datasource.url"));
+        System.out.println("hibernate.jdbc.batch_size: " + batchSize);
+        System.out.println("========================================");
+
+        // Warm up the JIT and connection pool before timing
+        insert(decision, FLUSH_EVERY);
+        insert(transaction, FLUSH_EVERY);
+
+        report("ExperimentDecision", rows, insert(decision, rows));
+        report("Transaction", rows, insert(transaction, rows));
+        System.out.println("========================================\n");
+    }
+
+    private long insert(IntFunction<Object> factory, int count) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+
+        template.executeWithoutResult(status -> {
+            for (int i = 0; i < count; i++) {
+                entityManager.persist(factory.apply(i));
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+
+        return System.nanoTime() - start;
+    }
+
+    private void report(String entity, int rows, long nanos) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("%-20s %,8d rows in %6.2f s  (%,.0f rows/s)\n",
+            entity, rows, seconds, rows / seconds);
+    }
+}
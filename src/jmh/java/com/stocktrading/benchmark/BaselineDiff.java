@@ -0,0 +1,79 @@
+package com.stocktrading.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Compares two JMH JSON reports (e.g. the last release's baseline and the current run):
+//   java -cp ... com.stocktrading.benchmark.BaselineDiff benchmarks/baseline.json target/jmh/jmh-result.json
+// Prints throughput and normalized allocation change per benchmark and exits 1 if any
+// throughput drops by more than the threshold percent (default 10).
+public class BaselineDiff {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineDiff <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        // Maven leaves ${jmh.baseline} as is when the property is not set
+        if (args[0].startsWith("${") || !new File(args[0]).isFile()) {
+            System.err.println("Baseline not found: " + (args[0].startsWith("${") ? "none given" : args[0])
+                + " (pass -Djmh.baseline=<jmh-result.json of the previous release, run on this machine>)");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, double[]> baseline = load(new File(args[0]));
+        Map<String, double[]> current = load(new File(args[1]));
+
+        System.out.printf("%-70s %14s %14s %8s %12s %12s%n",
+            "Benchmark", "Baseline ops/s", "Current ops/s", "Change", "Base B/op", "Curr B/op");
+
+        boolean regressed = false;
+        for (Map.Entry<String, double[]> entry : current.entrySet()) {
+            double[] now = entry.getValue();
+            double[] before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.1f %8s %12s %12.1f%n",
+                    entry.getKey(), "-", now[0], "new", "-", now[1]);
+                continue;
+            }
+            double change = (now[0] - before[0]) / before[0] * 100;
+            if (change < -threshold) {
+                regressed = true;
+            }
+            System.out.printf("%-70s %14.1f %14.1f %+7.1f%% %12.1f %12.1f%s%n",
+                entry.getKey(), before[0], now[0], change, before[1], now[1],
+                change < -threshold ? "  REGRESSION" : "");
+        }
+
+        System.exit(regressed ? 1 : 0);
+    }
+
+    // benchmark name + params -> {score, bytes allocated per op}
+    private static Map<String, double[]> load(File report) throws Exception {
+        Map<String, double[]> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(report)) {
+            StringBuilder key = new StringBuilder(run.get("benchmark").asText()
+                .replace("com.stocktrading.", ""));
+            JsonNode params = run.get("params");
+            if (params != null) {
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+                }
+            }
+
+            double score = run.get("primaryMetric").get("score").asDouble();
+            JsonNode allocation = run.path("secondaryMetrics").path(ALLOCATION).path("score");
+            results.put(key.toString(), new double[] { score, allocation.isMissingNode() ? Double.NaN : allocation.asDouble() });
+        }
+        return results;
+    }
+}
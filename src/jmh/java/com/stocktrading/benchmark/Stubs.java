@@ -0,0 +1,91 @@
+package com.stocktrading.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory stand-ins so service benchmarks measure the service logic rather than the database
+public class Stubs {
+
+    private static final AtomicLong ids = new AtomicLong();
+
+    // save/saveAll return their argument with an id assigned, finders return empty results
+    @SuppressWarnings("unchecked")
+    public static <T> T repository(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            String name = method.getName();
+            Class<?> returns = method.getReturnType();
+            if (name.equals("save")) {
+                assignId(args[0]);
+                return args[0];
+            }
+            if (name.equals("saveAll")) {
+                ((Iterable<?>) args[0]).forEach(Stubs::assignId);
+                return args[0];
+            }
+            if (name.equals("toString")) {
+                return type.getSimpleName() + "Stub";
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (returns == Optional.class) {
+                return Optional.empty();
+            }
+            if (List.class.isAssignableFrom(returns)) {
+                return new ArrayList<>();
+            }
+            if (returns == boolean.class || returns == Boolean.class) {
+                return false;
+            }
+            if (returns == long.class || returns == Long.class) {
+                return 0L;
+            }
+            return null;
+        });
+    }
+
+    // Like repository(type), except that calls to the named finder return result
+    @SuppressWarnings("unchecked")
+    public static <T> T repository(Class<T> type, String finder, Object result) {
+        T fallback = repository(type);
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) ->
+            method.getName().equals(finder) ? result : method.invoke(fallback, args));
+    }
+
+    private static void assignId(Object entity) {
+        try {
+            Field id = entity.getClass().getDeclaredField("id");
+            id.setAccessible(true);
+            if (id.get(entity) == null) {
+                id.set(entity, ids.incrementAndGet());
+            }
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            // Not an entity with a Long id; leave it alone
+        }
+    }
+
+    // Sets an @Autowired field without starting a Spring context
+    public static void inject(Object target, String fieldName, Object value) {
+        Class<?> type = target.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Cannot set " + fieldName + " on " + target.getClass().getSimpleName(), e);
+            }
+        }
+        throw new RuntimeException("No field " + fieldName + " on " + target.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,62 @@
+package com.stocktrading.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Deterministic OHLCV series in the layout of data/stock_*.csv (open,high,low,close,volume,sma,rsi)
+public class SyntheticSeries {
+
+    public static final String HEADER = "open,high,low,close,volume,sma,rsi";
+
+    public static String csv(int days, long seed) {
+        StringBuilder csv = new StringBuilder(days * 64);
+        csv.append(HEADER).append('\n');
+
+        Random random = new Random(seed);
+        double close = 100.0;
+        double[] recentCloses = new double[20];
+        double gains = 0.0;
+        double losses = 0.0;
+
+        for (int day = 0; day < days; day++) {
+            double open = close;
+            // Geometric random walk with bursts of higher volatility, like the real segments
+            double sigma = (day / 50) % 4 == 0 ? 0.04 : 0.015;
+            close = Math.max(1.0, open * Math.exp(random.nextGaussian() * sigma));
+            double high = Math.max(open, close) * (1 + random.nextDouble() * 0.01);
+            double low = Math.min(open, close) * (1 - random.nextDouble() * 0.01);
+            long volume = 100_000 + random.nextInt(900_000);
+
+            recentCloses[day % recentCloses.length] = close;
+            int window = Math.min(day + 1, recentCloses.length);
+            double sum = 0.0;
+            for (int i = 0; i < window; i++) {
+                sum += recentCloses[i];
+            }
+            double sma = sum / window;
+
+            double change = close - open;
+            gains = gains * 13 / 14 + Math.max(change, 0) / 14;
+            losses = losses * 13 / 14 + Math.max(-change, 0) / 14;
+            double rsi = losses == 0 ? 100.0 : 100 - 100 / (1 + gains / losses);
+
+            csv.append(String.format(Locale.ROOT, "%.4f,%.4f,%.4f,%.4f,%d,%.4f,%.4f%n",
+                open, high, low, close, volume, sma, rsi));
+        }
+
+        return csv.toString();
+    }
+
+    public static List<Double> closes(int days, long seed) {
+        List<Double> closes = new ArrayList<>(days);
+        Random random = new Random(seed);
+        double close = 100.0;
+        for (int day = 0; day < days; day++) {
+            close = Math.max(1.0, close * Math.exp(random.nextGaussian() * 0.02));
+            closes.add(close);
+        }
+        return closes;
+    }
+}
@@ -0,0 +1,41 @@
+package com.stocktrading.service;
+
+import com.stocktrading.benchmark.SyntheticSeries;
+import org.openjdk.jmh.annotations.*;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalysisBenchmark {
+
+    // Trading days in the synthetic series; override with -p seriesLength=...
+    @Param({"250", "2500"})
+    public int seriesLength;
+
+    private final VolatilityAnalyzer analyzer = new VolatilityAnalyzer();
+
+    private String csv;
+    private List<Double> window;
+
+    @Setup
+    public void setUp() {
+        csv = SyntheticSeries.csv(seriesLength, 42);
+        window = SyntheticSeries.closes(10, 42);
+    }
+
+    @Benchmark
+    public double calculateVolatility() {
+        return analyzer.calculateVolatility(window);
+    }
+
+    @Benchmark
+    public VolatilityAnalyzer.StockVolatility analyzeStock() throws Exception {
+        return analyzer.analyzeStock(new StringReader(csv), "BENCH");
+    }
+}
@@ -0,0 +1,31 @@
+package com.stocktrading.service;
+
+import com.stocktrading.benchmark.SyntheticSeries;
+import org.openjdk.jmh.annotations.*;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+// Parsing one data file and computing its indicators, which PriceHistoryService does once per symbol
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockDataBenchmark {
+
+    @Param({"250", "2500"})
+    public int seriesLength;
+
+    private String csv;
+
+    @Setup
+    public void setUp() {
+        csv = SyntheticSeries.csv(seriesLength, 42);
+    }
+
+    @Benchmark
+    public PriceHistoryService.PriceHistory parse() throws Exception {
+        return PriceHistoryService.parse(new StringReader(csv));
+    }
+}
@@ -0,0 +1,95 @@
+package com.stocktrading.service;
+
+import com.stocktrading.benchmark.Stubs;
+import com.stocktrading.model.*;
+import com.stocktrading.repository.*;
+import org.openjdk.jmh.annotations.*;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Service logic of a decision and a purchase, with repositories stubbed out so the
+// numbers track our code rather than the database
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradingPathBenchmark {
+
+    private static final String[] ACTIONS = {"BUY", "SELL", "HOLD"};
+
+    private ExperimentService experimentService;
+    private TradingService tradingService;
+
+    private User user;
+    private Stock stock;
+    private ExperimentSession session;
+
+    @Setup
+    public void setUp() {
+        ExperimentAnalyticsService analyticsService = new ExperimentAnalyticsService();
+        PageVersions pageVersions = new PageVersions();
+
+        // Scores are re-read from the database after commit; there is no database here
+        LeaderboardService leaderboardService = new LeaderboardService() {
+            @Override
+            public void experimentChanged(Long userId) { }
+
+            @Override
+            public void navChanged(Long userId) { }
+        };
+
+        experimentService = new ExperimentService();
+        Stubs.inject(experimentService, "sessionRepository", Stubs.repository(ExperimentSessionRepository.class));
+        Stubs.inject(experimentService, "decisionRepository", Stubs.repository(ExperimentDecisionRepository.class));
+        Stubs.inject(experimentService, "experimentStockRepository", Stubs.repository(ExperimentStockRepository.class));
+        Stubs.inject(experimentService, "analyticsService", analyticsService);
+        Stubs.inject(experimentService, "pageVersions", pageVersions);
+        Stubs.inject(experimentService, "leaderboardService", leaderboardService);
+
+        UserCache userCache = new UserCache();
+        Stubs.inject(userCache, "userRepository", Stubs.repository(UserRepository.class));
+        DashboardCounters dashboardCounters = new DashboardCounters();
+
+        user = new User("bench", "x", "Benchmark User", "bench@example.com", "USER");
+        user.setId(1L);
+        user.setCreditsMicros(Long.MAX_VALUE / 2);
+
+        tradingService = new TradingService();
+        Stubs.inject(tradingService, "userRepository",
+            Stubs.repository(UserRepository.class, "findByIdForUpdate", Optional.of(user)));
+        Stubs.inject(tradingService, "stockRepository", Stubs.repository(StockRepository.class));
+        Stubs.inject(tradingService, "transactionRepository", Stubs.repository(TransactionRepository.class));
+        Stubs.inject(tradingService, "portfolioRepository", Stubs.repository(PortfolioRepository.class));
+        Stubs.inject(tradingService, "userCache", userCache);
+        Stubs.inject(tradingService, "dashboardCounters", dashboardCounters);
+        Stubs.inject(tradingService, "pageVersions", pageVersions);
+        Stubs.inject(tradingService, "leaderboardService", leaderboardService);
+
+        stock = new Stock("BENCH", "Benchmark Stock", 100.0);
+        stock.setId(1L);
+
+        session = new ExperimentSession(user);
+        session.setId(1L);
+    }
+
+    // Cycles BUY, SELL, HOLD through all 100 decisions, then starts a fresh session
+    @Benchmark
+    public ExperimentDecision makeDecision() {
+        if (session.getCompleted()) {
+            session.setCompleted(false);
+            session.setStartTime(LocalDateTime.now());
+            session.setCurrentStockIndex(0);
+            session.setCurrentDay(0);
+        }
+        String action = ACTIONS[session.getCurrentDay() % ACTIONS.length];
+        return experimentService.makeDecision(session, action, 100.0 + session.getCurrentDay(), 1500L);
+    }
+
+    @Benchmark
+    public Transaction buyStock() {
+        return tradingService.buyStock(user, stock, 10);
+    }
+}
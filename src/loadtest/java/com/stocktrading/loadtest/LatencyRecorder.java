@@ -0,0 +1,83 @@
+package com.stocktrading.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-operation latencies and error counts, recorded from every participant thread
+public class LatencyRecorder {
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    private static class Operation {
+        private long[] samples = new long[1024];
+        private int size;
+        final LongAdder errors = new LongAdder();
+
+        synchronized void add(long micros) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = micros;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    public void record(String operation, long nanos, boolean ok) {
+        Operation op = operations.computeIfAbsent(operation, key -> new Operation());
+        op.add(nanos / 1000);
+        if (!ok) {
+            op.errors.increment();
+        }
+    }
+
+    // A failure noticed after the request was timed, e.g. a flash error on the redirect target
+    public void recordError(String operation) {
+        operations.computeIfAbsent(operation, key -> new Operation()).errors.increment();
+    }
+
+    public long totalRequests() {
+        return operations.values().stream().mapToLong(op -> op.sorted().length).sum();
+    }
+
+    public long totalErrors() {
+        return operations.values().stream().mapToLong(op -> op.errors.sum()).sum();
+    }
+
+    public void print(double elapsedSeconds) {
+        System.out.printf(Locale.ROOT, "%-14s %9s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+            "operation", "requests", "req/s", "errors", "err %", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+
+        operations.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(entry -> {
+                long[] samples = entry.getValue().sorted();
+                long errors = entry.getValue().errors.sum();
+                System.out.printf(Locale.ROOT, "%-14s %9d %9.1f %8d %8.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    entry.getKey(), samples.length, samples.length / elapsedSeconds, errors,
+                    samples.length == 0 ? 0.0 : errors * 100.0 / samples.length,
+                    percentile(samples, 0.50), percentile(samples, 0.90), percentile(samples, 0.99),
+                    percentile(samples, 0.999), samples.length == 0 ? 0.0 : samples[samples.length - 1] / 1000.0);
+            });
+
+        long requests = totalRequests();
+        long errors = totalErrors();
+        System.out.printf(Locale.ROOT, "%-14s %9d %9.1f %8d %8.2f%%%n", "TOTAL", requests, requests / elapsedSeconds,
+            errors, requests == 0 ? 0.0 : errors * 100.0 / requests);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0;
+    }
+}
@@ -0,0 +1,328 @@
+package com.stocktrading.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Headless participants for a running app. Each one logs in, plays the experiment
+// (/experiment/start, then /trade and /decide for every decision) with randomized think
+// time, then makes buy/sell round trips on the market.
+//
+//   mvn -Ploadtest compile exec:java -Dloadtest.args="--participants=500 --provision"
+//
+// Options (defaults in brackets):
+//   --base-url [http://localhost:8080]  --participants [30]  --decisions [100]
+//   --think-min-ms [500]  --think-max-ms [3000]  --ramp-up-seconds [10]
+//   --trades [5] buy+sell pairs per participant  --stocks [10] stock ids to trade (1..n)
+//   --user-prefix [user]  --password [user123]  --first-user [1]
+//   --provision  create loadtest1..N through /admin/users/bulk first (uses --admin-user/--admin-password)
+public class LoadTest {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"[^>]*value=\"([^\"]+)\"");
+    private static final Pattern SESSION_COOKIE = Pattern.compile("JSESSIONID=([^;]+)");
+    private static final String ERROR_ALERT = "alert alert-error";
+
+    private final Map<String, String> options;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final AtomicInteger finished = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    public LoadTest(Map<String, String> options, ExecutorService executor) {
+        this.options = options;
+        this.baseUrl = option("base-url", "http://localhost:8080");
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(executor)
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int eq = arg.indexOf('=');
+                options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+            }
+        }
+
+        // One virtual thread per participant, so thousands of them cost no more than their sockets
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            new LoadTest(options, executor).run(executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void run(ExecutorService executor) throws Exception {
+        int participants = intOption("participants", 30);
+        int rampUpMillis = intOption("ramp-up-seconds", 10) * 1000;
+        String prefix = option("user-prefix", "user");
+        String password = option("password", "user123");
+        int firstUser = intOption("first-user", 1);
+
+        if (options.containsKey("provision")) {
+            prefix = "loadtest";
+            password = "loadtest123";
+            provision(participants, prefix, password);
+        }
+
+        System.out.println("========================================");
+        System.out.println("LOAD TEST");
+        System.out.println("Target: " + baseUrl);
+        System.out.println("Participants: " + participants + " (" + prefix + firstUser + ".." + prefix + (firstUser + participants - 1) + ")");
+        System.out.println("Decisions each: " + intOption("decisions", 100) + ", think time "
+            + intOption("think-min-ms", 500) + "-" + intOption("think-max-ms", 3000) + " ms");
+        System.out.println("========================================");
+
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < participants; i++) {
+            String username = prefix + (firstUser + i);
+            String userPassword = password;
+            long delay = participants <= 1 ? 0 : (long) rampUpMillis * i / (participants - 1);
+            futures.add(executor.submit(() -> {
+                Thread.sleep(delay);
+                runParticipant(username, userPassword);
+                return null;
+            }));
+        }
+
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+        progress.scheduleAtFixedRate(() -> System.out.printf("  %d/%d participants done, %d requests, %d errors%n",
+            finished.get(), participants, recorder.totalRequests(), recorder.totalErrors()), 10, 10, TimeUnit.SECONDS);
+        try {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failed.incrementAndGet();
+                    System.err.println("Participant aborted: " + e.getCause().getMessage());
+                }
+            }
+        } finally {
+            progress.shutdownNow();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Finished in %.1f s: %d participants completed, %d aborted%n",
+            elapsed, participants - failed.get(), failed.get());
+        recorder.print(elapsed);
+    }
+
+    private void runParticipant(String username, String password) throws Exception {
+        Participant p = new Participant();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            p.login(username, password);
+
+            Response start = p.get("start", "/experiment/start");
+            if (start.status != 302) {
+                throw new RuntimeException(username + ": /experiment/start returned " + start.status);
+            }
+
+            int decisions = intOption("decisions", 100);
+            int thinkMin = intOption("think-min-ms", 500);
+            int thinkMax = Math.max(thinkMin, intOption("think-max-ms", 3000));
+            int shares = 0;
+
+            for (int i = 0; i < decisions; i++) {
+                Response trade = p.get("trade", "/experiment/trade");
+                if (trade.status == 302) {
+                    break; // Session finished (or expired) before reaching the requested count
+                }
+                if (trade.body.contains(ERROR_ALERT)) {
+                    recorder.recordError("decide"); // The previous decision was refused
+                }
+
+                Thread.sleep(random.nextInt(thinkMin, thinkMax + 1));
+
+                // Only sell what this episode has bought, so rejected decisions mean server problems
+                String action;
+                int roll = random.nextInt(3);
+                if (roll == 0) {
+                    action = "BUY";
+                } else if (roll == 1 && shares >= 10) {
+                    action = "SELL";
+                } else {
+                    action = "HOLD";
+                }
+
+                Response decide = p.post("decide", "/experiment/decide", "action=" + action);
+                if ("BUY".equals(action)) {
+                    shares += 10;
+                } else if ("SELL".equals(action)) {
+                    shares -= 10;
+                }
+
+                String next = decide.location();
+                if (next.contains("/experiment/episode-summary")) {
+                    p.get("episode_summary", "/experiment/episode-summary");
+                    shares = 0;
+                } else if (next.contains("/experiment/summary")) {
+                    p.get("summary", "/experiment/summary");
+                    break;
+                }
+            }
+
+            int stocks = intOption("stocks", 10);
+            for (int i = 0; i < intOption("trades", 5); i++) {
+                String stockId = String.valueOf(random.nextInt(1, stocks + 1));
+                p.post("buy", "/trade/buy", "stockId=" + stockId + "&quantity=1");
+                p.checkPortfolio("buy");
+                p.post("sell", "/trade/sell", "stockId=" + stockId + "&quantity=1");
+                p.checkPortfolio("sell");
+            }
+        } finally {
+            finished.incrementAndGet();
+        }
+    }
+
+    // Creates the participants' accounts as an admin using the bulk CSV upload
+    private void provision(int participants, String prefix, String password) throws Exception {
+        Participant admin = new Participant();
+        admin.login(option("admin-user", "admin1"), option("admin-password", "admin123"));
+        admin.get("admin_page", "/admin/users");
+
+        StringBuilder csv = new StringBuilder("username,password,fullName,email,role\n");
+        int first = intOption("first-user", 1);
+        for (int i = first; i < first + participants; i++) {
+            csv.append(prefix).append(i).append(',').append(password).append(",Load Test ").append(i)
+                .append(',').append(prefix).append(i).append("@loadtest.local,USER\n");
+        }
+
+        String boundary = "----loadtest" + System.nanoTime();
+        String body = "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"loadtest-users.csv\"\r\n"
+            + "Content-Type: text/csv\r\n\r\n"
+            + csv + "\r\n--" + boundary + "--\r\n";
+
+        HttpRequest request = admin.request("/admin/users/bulk")
+            .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+            .header("X-CSRF-TOKEN", admin.csrf)
+            .timeout(Duration.ofMinutes(10))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        String[] lines = response.body().trim().split("\n");
+        System.out.println("Provisioning: HTTP " + response.statusCode() + ", " + lines[lines.length - 1]);
+        if (response.statusCode() != 200) {
+            throw new RuntimeException("Provisioning failed with HTTP " + response.statusCode());
+        }
+    }
+
+    private static class Response {
+        final int status;
+        final String body;
+        final HttpHeaders headers;
+
+        Response(int status, String body, HttpHeaders headers) {
+            this.status = status;
+            this.body = body;
+            this.headers = headers;
+        }
+
+        String location() {
+            return headers.firstValue("Location").orElse("");
+        }
+    }
+
+    // One simulated browser: its own session cookie and CSRF token over the shared HttpClient
+    private class Participant {
+        String sessionId;
+        String csrf;
+
+        void login(String username, String password) throws Exception {
+            get("login_page", "/login");
+            Response login = post("login", "/login", "username=" + encode(username) + "&password=" + encode(password));
+            if (login.status != 302 || login.location().contains("error")) {
+                throw new RuntimeException("Login failed for " + username);
+            }
+            // The token is rotated on login; pick up the new one from the landing page
+            get("dashboard", "/dashboard");
+        }
+
+        Response get(String operation, String path) throws Exception {
+            return send(operation, request(path).GET().build());
+        }
+
+        Response post(String operation, String path, String form) throws Exception {
+            String body = form + "&_csrf=" + encode(csrf == null ? "" : csrf);
+            return send(operation, request(path)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+        }
+
+        // The market endpoints report failures as a flash message on the page they redirect to
+        void checkPortfolio(String operation) throws Exception {
+            Response portfolio = get("portfolio", "/portfolio");
+            if (portfolio.body.contains(ERROR_ALERT)) {
+                recorder.recordError(operation);
+            }
+        }
+
+        HttpRequest.Builder request(String path) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+            if (sessionId != null) {
+                builder.header("Cookie", "JSESSIONID=" + sessionId);
+            }
+            return builder;
+        }
+
+        private Response send(String operation, HttpRequest request) throws Exception {
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                recorder.record(operation, System.nanoTime() - start, false);
+                throw e;
+            }
+            int status = response.statusCode();
+            boolean ok = status < 400 && !response.headers().firstValue("Location").orElse("").contains("/login");
+            recorder.record(operation, System.nanoTime() - start, ok);
+
+            for (String cookie : response.headers().allValues("Set-Cookie")) {
+                Matcher matcher = SESSION_COOKIE.matcher(cookie);
+                if (matcher.find()) {
+                    sessionId = matcher.group(1);
+                }
+            }
+            Matcher token = CSRF.matcher(response.body());
+            if (token.find()) {
+                csrf = token.group(1);
+            }
+            return new Response(status, response.body(), response.headers());
+        }
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -2,28 +2,53 @@ package com.stocktrading.config;
 
 import com.stocktrading.model.User;
 import com.stocktrading.repository.UserRepository;
+import com.stocktrading.service.UserCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Collections;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
-    
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
     @Autowired
     private UserRepository userRepository;
-    
+
+    @Autowired
+    private UserCache userCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = userCache.getByUsername(username)
             .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        
+
+        return toUserDetails(user, user.getPassword());
+    }
+
+    // Called by Spring Security after a successful login when the stored hash
+    // was made with a lower BCrypt strength than the one currently configured
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        userCache.evict(user.getUsername());
+
+        return toUserDetails(user, newPassword);
+    }
+
+    private UserDetails toUserDetails(User user, String password) {
         return new org.springframework.security.core.userdetails.User(
             user.getUsername(),
-            user.getPassword(),
+            password,
             Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole()))
         );
     }
@@ -1,18 +1,19 @@
 package com.stocktrading.config;
 
 import com.stocktrading.model.Stock;
-import com.stocktrading.model.User;
 import com.stocktrading.repository.StockRepository;
 import com.stocktrading.repository.UserRepository;
+import com.stocktrading.service.UserProvisioningService;
 import com.opencsv.CSVReader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 @Order(1)
@@ -25,7 +26,7 @@ public class DataLoader implements CommandLineRunner {
     private StockRepository stockRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private UserProvisioningService userProvisioningService;
     
     @Override
     public void run(String... args) throws Exception {
@@ -38,34 +39,31 @@ public class DataLoader implements CommandLineRunner {
             System.out.println("Creating users...");
             
             try {
-                // Create admin users
-                User admin1 = new User("admin1", passwordEncoder.encode("admin123"), 
-                                      "Admin One", "admin1@trading.com", "ADMIN");
-                admin1.setCredits(100000.0);
-                userRepository.save(admin1);
+                List<UserProvisioningService.UserSpec> specs = new ArrayList<>();
                 
-                User admin2 = new User("admin2", passwordEncoder.encode("admin123"), 
-                                      "Admin Two", "admin2@trading.com", "ADMIN");
-                admin2.setCredits(100000.0);
-                userRepository.save(admin2);
+                // Admin users
+                specs.add(new UserProvisioningService.UserSpec("admin1", "admin123",
+                    "Admin One", "admin1@trading.com", "ADMIN"));
+                specs.add(new UserProvisioningService.UserSpec("admin2", "admin123",
+                    "Admin Two", "admin2@trading.com", "ADMIN"));
                 
-                System.out.println("✓ Created 2 admin users (admin1, admin2)");
-                
-                // Create 30 regular users
+                // 30 regular users
                 for (int i = 1; i <= 30; i++) {
-                    User user = new User(
+                    specs.add(new UserProvisioningService.UserSpec(
                         "user" + i,
-                        passwordEncoder.encode("user123"),
+                        "user123",
                         "User " + i,
                         "user" + i + "@trading.com",
                         "USER"
-                    );
-                    user.setCredits(100000.0);
-                    userRepository.save(user);
+                    ));
                 }
                 
+                // Passwords are hashed in parallel and inserted as one JDBC batch
+                UserProvisioningService.ProvisioningResult result = userProvisioningService.provisionUsers(specs);
+                
+                System.out.println("✓ Created 2 admin users (admin1, admin2)");
                 System.out.println("✓ Created 30 regular users (user1-user30)");
-                System.out.println("✓ Total users created: " + userRepository.count());
+                System.out.println("✓ Total users created: " + result.created);
             } catch (Exception e) {
                 System.err.println("❌ ERROR creating users: " + e.getMessage());
                 e.printStackTrace();
@@ -79,6 +77,7 @@ public class DataLoader implements CommandLineRunner {
             System.out.println("\nLoading stocks from CSV files...");
             int successCount = 0;
             int failCount = 0;
+            List<Stock> stocks = new ArrayList<>();
             
             for (int i = 1; i <= 110; i++) {
                 try {
@@ -108,7 +107,7 @@ public class DataLoader implements CommandLineRunner {
                             stock.setLastUpdated(LocalDateTime.now());
                             stock.setActive(true);
                             
-                            stockRepository.save(stock);
+                            stocks.add(stock);
                             successCount++;
                             
                             if (successCount % 20 == 0) {
@@ -131,6 +130,9 @@ public class DataLoader implements CommandLineRunner {
                 }
             }
             
+            // One batched insert instead of a round trip per stock
+            stockRepository.saveAll(stocks);
+            
             System.out.println("\n✓ Stocks loaded successfully: " + successCount);
             if (failCount > 0) {
                 System.out.println("⚠ Failed to load: " + failCount + " stocks");
@@ -2,6 +2,7 @@ package com.stocktrading.config;
 
 import com.stocktrading.model.ExperimentStock;
 import com.stocktrading.repository.ExperimentStockRepository;
+import com.stocktrading.service.OptimalPolicyService;
 import com.stocktrading.service.VolatilityAnalyzer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
@@ -19,6 +20,9 @@ public class ExperimentDataLoader implements CommandLineRunner {
     @Autowired
     private ExperimentStockRepository experimentStockRepository;
     
+    @Autowired
+    private OptimalPolicyService optimalPolicyService;
+    
     @Override
     public void run(String... args) throws Exception {
         if (experimentStockRepository.count() == 0) {
@@ -63,5 +67,8 @@ public class ExperimentDataLoader implements CommandLineRunner {
             System.out.println("✓ Total experiment: 10 stocks × 10 days = 100 decisions");
             System.out.println("========================================\n");
         }
+        
+        // Best achievable return per segment, the upper bound participants' regret is measured from
+        optimalPolicyService.precompute();
     }
 }
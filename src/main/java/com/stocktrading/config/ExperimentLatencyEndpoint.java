@@ -0,0 +1,22 @@
+package com.stocktrading.config;
+
+import com.stocktrading.service.ExperimentLatencyMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+
+// GET /actuator/experimentlatency: p50/p99/p999 per stage of /experiment/trade and /experiment/decide
+@Component
+@Endpoint(id = "experimentlatency")
+public class ExperimentLatencyEndpoint {
+
+    @Autowired
+    private ExperimentLatencyMetrics latencyMetrics;
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> latency() {
+        return latencyMetrics.snapshot();
+    }
+}
@@ -0,0 +1,49 @@
+package com.stocktrading.config;
+
+import com.stocktrading.service.ExperimentLatencyMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+// Times the whole request and the view render, which happens after the controller returns
+@Component
+public class ExperimentTimingInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private ExperimentLatencyMetrics latencyMetrics;
+
+    private static final String STARTED_AT = ExperimentTimingInterceptor.class.getName() + ".startedAt";
+    private static final String HANDLED_AT = ExperimentTimingInterceptor.class.getName() + ".handledAt";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        request.setAttribute(HANDLED_AT, System.nanoTime());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Long startedAt = (Long) request.getAttribute(STARTED_AT);
+        if (startedAt == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        String endpoint = request.getRequestURI().substring(request.getRequestURI().lastIndexOf('/') + 1);
+        Long handledAt = (Long) request.getAttribute(HANDLED_AT);
+        if (handledAt != null) {
+            latencyMetrics.record(endpoint, "render", now - handledAt);
+        }
+        latencyMetrics.record(endpoint, "total", now - startedAt);
+    }
+}
@@ -0,0 +1,203 @@
+package com.stocktrading.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Per-user token buckets on the endpoints that write (trade fills and experiment decisions), so a
+// client retrying in a loop gets 429 before it costs any queries and cannot slow the cohort.
+// Each bucket is stored as the time at which it is full again (the GCRA form of a token bucket):
+// taking a token is one compare-and-set on an AtomicLongArray slot, with no lock. Runs after
+// Spring Security, so only signed-in users reach it and they are keyed by username.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${app.rate-limit.inline-sweep-ms:1000}")
+    private long inlineSweepMs;
+
+    @Value("${app.rate-limit.buy.burst:10}")
+    private int buyBurst;
+
+    @Value("${app.rate-limit.buy.per-minute:60}")
+    private int buyPerMinute;
+
+    @Value("${app.rate-limit.sell.burst:10}")
+    private int sellBurst;
+
+    @Value("${app.rate-limit.sell.per-minute:60}")
+    private int sellPerMinute;
+
+    @Value("${app.rate-limit.decide.burst:5}")
+    private int decideBurst;
+
+    @Value("${app.rate-limit.decide.per-minute:60}")
+    private int decidePerMinute;
+
+    private Endpoint[] endpoints;
+
+    // Username -> one bucket per endpoint, indexed like endpoints
+    private final Map<String, AtomicLongArray> buckets = new ConcurrentHashMap<>();
+
+    // When buckets were last swept, so a flood of new users while full sweeps once per interval
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    private Counter untrackedCounter;
+
+    private static class Endpoint {
+        final String path;
+        final int burst;
+        final long intervalNanos;
+        Counter rejectedCounter;
+
+        Endpoint(String path, int burst, int perMinute) {
+            if (burst < 1 || perMinute < 1) {
+                throw new RuntimeException("Rate limit for " + path + " needs a burst and per-minute rate of at least 1");
+            }
+            this.path = path;
+            this.burst = burst;
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+        }
+    }
+
+    @Override
+    protected void initFilterBean() {
+        endpoints = new Endpoint[] {
+            new Endpoint("/trade/buy", buyBurst, buyPerMinute),
+            new Endpoint("/trade/sell", sellBurst, sellPerMinute),
+            new Endpoint("/experiment/decide", decideBurst, decidePerMinute)
+        };
+        for (Endpoint endpoint : endpoints) {
+            endpoint.rejectedCounter = Counter.builder("http.ratelimit.rejected")
+                .description("Requests answered with 429 because the user's bucket was empty")
+                .tag("endpoint", endpoint.path)
+                .register(meterRegistry);
+        }
+        untrackedCounter = Counter.builder("http.ratelimit.untracked")
+            .description("Requests let through unlimited because max-users buckets were in use")
+            .register(meterRegistry);
+        Gauge.builder("http.ratelimit.users", buckets, Map::size)
+            .description("Users with a bucket that has not refilled yet")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || endpointIndex(request.getServletPath()) < 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        int index = endpointIndex(request.getServletPath());
+        long waitNanos = acquire(authentication.getName(), index);
+        if (waitNanos > 0) {
+            endpoints[index].rejectedCounter.increment();
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.setHeader("Retry-After", String.valueOf(retryAfter));
+            response.setHeader("Cache-Control", "no-store");
+            response.sendError(429, "Too many requests; try again in " + retryAfter + " s");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    // 0 when a token was taken, otherwise how long until the next one
+    private long acquire(String username, int index) {
+        long now = System.nanoTime();
+        AtomicLongArray userBuckets = buckets.get(username);
+        if (userBuckets == null) {
+            if (buckets.size() >= maxUsers) {
+                long last = lastSweep.get();
+                if (now - last >= TimeUnit.MILLISECONDS.toNanos(inlineSweepMs) && lastSweep.compareAndSet(last, now)) {
+                    removeFull(now);
+                }
+                if (buckets.size() >= maxUsers) {
+                    untrackedCounter.increment();
+                    return 0;
+                }
+            }
+            userBuckets = buckets.computeIfAbsent(username, name -> full(now));
+        }
+
+        Endpoint endpoint = endpoints[index];
+        long capacityNanos = endpoint.intervalNanos * endpoint.burst;
+        while (true) {
+            long fullAt = userBuckets.get(index);
+            long next = (fullAt - now > 0 ? fullAt : now) + endpoint.intervalNanos;
+            if (next - now > capacityNanos) {
+                return next - now - capacityNanos;
+            }
+            if (userBuckets.compareAndSet(index, fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // A full bucket is the same as no bucket, so dropping it loses nothing
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-ms:60000}", initialDelayString = "${app.rate-limit.sweep-ms:60000}")
+    public void evictFull() {
+        long now = System.nanoTime();
+        lastSweep.set(now);
+        removeFull(now);
+    }
+
+    private void removeFull(long now) {
+        buckets.values().removeIf(userBuckets -> {
+            for (int i = 0; i < userBuckets.length(); i++) {
+                if (userBuckets.get(i) - now > 0) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    private AtomicLongArray full(long now) {
+        AtomicLongArray userBuckets = new AtomicLongArray(endpoints.length);
+        for (int i = 0; i < endpoints.length; i++) {
+            userBuckets.set(i, now);
+        }
+        return userBuckets;
+    }
+
+    private int endpointIndex(String path) {
+        for (int i = 0; i < endpoints.length; i++) {
+            if (endpoints[i].path.equals(path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
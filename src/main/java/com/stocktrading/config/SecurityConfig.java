@@ -1,5 +1,7 @@
 package com.stocktrading.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -16,8 +18,8 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(authorize -> authorize
-                .requestMatchers("/", "/login", "/logout", "/h2-console/**", "/error").permitAll()
-                .requestMatchers("/admin/**").hasRole("ADMIN")
+                .requestMatchers("/", "/login", "/logout", "/h2-console/**", "/error", "/css/**", "/js/**").permitAll()
+                .requestMatchers("/admin/**", "/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
@@ -41,7 +43,14 @@ public class SecurityConfig {
     }
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength:10}") int strength,
+                                           @Value("${app.security.password-pool.threads:0}") int threads,
+                                           @Value("${app.security.password-pool.queue-capacity:64}") int queueCapacity,
+                                           @Value("${app.security.password-pool.timeout-ms:10000}") long timeoutMillis,
+                                           MeterRegistry meterRegistry) {
+        // Default to one worker per core, minus one left for authenticated traffic
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize,
+                                          queueCapacity, timeoutMillis, meterRegistry);
     }
 }
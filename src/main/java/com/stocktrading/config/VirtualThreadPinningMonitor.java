@@ -0,0 +1,94 @@
+package com.stocktrading.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In virtual-thread mode, a virtual thread that blocks inside a synchronized block (or native
+// frame) pins its carrier, and enough of them stall every request. This watches the JFR
+// jdk.VirtualThreadPinned event, counts it as jvm.threads.virtual.pinned and logs each
+// distinct pinning site once so it can be replaced with a ReentrantLock.
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.virtual-threads.pinning-threshold-ms:20}")
+    private long thresholdMillis;
+
+    private static final int FRAMES_LOGGED = 12;
+
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream stream;
+    private Counter pinnedCounter;
+
+    @Override
+    public void afterPropertiesSet() {
+        pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+            .description("Virtual threads that blocked while pinned to their carrier")
+            .register(meterRegistry);
+
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned")
+            .withThreshold(Duration.ofMillis(thresholdMillis))
+            .withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+
+        System.out.println("✓ Virtual threads enabled; reporting pins longer than " + thresholdMillis + " ms");
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return;
+        }
+
+        // Key the site by the first application frame, falling back to the top frame
+        String site = null;
+        StringBuilder frames = new StringBuilder();
+        int logged = 0;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String location = frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+            if (site == null && location.startsWith("com.stocktrading.")) {
+                site = location;
+            }
+            if (logged++ < FRAMES_LOGGED) {
+                frames.append("\n    at ").append(location);
+            }
+        }
+        if (site == null && !stackTrace.getFrames().isEmpty()) {
+            RecordedFrame top = stackTrace.getFrames().get(0);
+            site = top.getMethod().getType().getName() + "." + top.getMethod().getName();
+        }
+
+        if (site != null && reportedSites.add(site)) {
+            System.err.println("⚠ Virtual thread pinned for " + event.getDuration().toMillis() + " ms at " + site + frames);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
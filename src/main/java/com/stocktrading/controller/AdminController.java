@@ -1,14 +1,30 @@
 package com.stocktrading.controller;
 
+import com.stocktrading.config.CurrentUser;
+import com.stocktrading.model.ExperimentStock;
 import com.stocktrading.model.User;
-import com.stocktrading.repository.TransactionRepository;
+import com.stocktrading.repository.ExperimentStockRepository;
 import com.stocktrading.service.*;
+import com.opencsv.CSVReader;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @RequestMapping("/admin")
@@ -21,45 +37,114 @@ public class AdminController {
     private PortfolioService portfolioService;
     
     @Autowired
-    private TransactionRepository transactionRepository;
+    private DashboardCounters dashboardCounters;
+    
+    @Autowired
+    private UserProvisioningService userProvisioningService;
+    
+    @Autowired
+    private TransactionHistoryService transactionHistoryService;
+    
+    @Autowired
+    private ExperimentExportService experimentExportService;
+    
+    @Autowired
+    private ExperimentAnalyticsService experimentAnalyticsService;
+    
+    @Autowired
+    private ExperimentStockRepository experimentStockRepository;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
     
     @GetMapping("/dashboard")
-    public String adminDashboard(Model model, Authentication auth) {
-        User admin = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
+    public String adminDashboard(Model model, @CurrentUser User admin) {
         model.addAttribute("admin", admin);
-        model.addAttribute("totalUsers", userService.getAllRegularUsers().size());
-        model.addAttribute("activeUsers", userService.getAllRegularUsers().stream()
-            .filter(u -> u.getActive()).count());
-        model.addAttribute("totalTransactions", transactionRepository.count());
+        model.addAttribute("totalUsers", dashboardCounters.getRegularUsers());
+        model.addAttribute("activeUsers", dashboardCounters.getActiveRegularUsers());
+        model.addAttribute("totalTransactions", dashboardCounters.getTransactions());
+        model.addAttribute("leaderboard", leaderboardService.getStanding(null, 20));
         
         return "admin/dashboard";
     }
     
     @GetMapping("/users")
-    public String listUsers(Model model, Authentication auth) {
-        User admin = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
+    public String listUsers(Model model, @CurrentUser User admin) {
         model.addAttribute("admin", admin);
         model.addAttribute("users", userService.getAllRegularUsers());
         
         return "admin/users";
     }
     
-    @GetMapping("/user/{id}")
-    public String userDetails(@PathVariable Long id, Model model, Authentication auth) {
-        User admin = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    // CSV columns: username,password,fullName,email[,role]. Progress is streamed back as plain-text lines.
+    @PostMapping(value = "/users/bulk", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<StreamingResponseBody> bulkCreateUsers(@RequestParam("file") MultipartFile file) throws Exception {
+        List<UserProvisioningService.UserSpec> specs = new ArrayList<>();
+        
+        try (CSVReader reader = new CSVReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                if (line.length < 4 || "username".equalsIgnoreCase(line[0].trim())) {
+                    continue; // Header or malformed row
+                }
+                specs.add(new UserProvisioningService.UserSpec(
+                    line[0].trim(), line[1], line[2].trim(), line[3].trim(),
+                    line.length > 4 ? line[4].trim() : "USER"
+                ));
+            }
+        }
+        
+        StreamingResponseBody body = out -> {
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            ReentrantLock writerLock = new ReentrantLock();
+            writer.println("Received " + specs.size() + " users");
+            writer.flush();
+            
+            try {
+                UserProvisioningService.ProvisioningResult result = userProvisioningService.provisionUsers(specs,
+                    (stage, done, total) -> {
+                        // Not synchronized: flushing to the client blocks, which would pin a virtual thread
+                        writerLock.lock();
+                        try {
+                            writer.println(stage + " " + done + "/" + total);
+                            writer.flush();
+                        } finally {
+                            writerLock.unlock();
+                        }
+                    });
+                
+                writer.println("Created " + result.created + " users, skipped " + result.skipped);
+                if (!result.skippedUsernames.isEmpty()) {
+                    writer.println("Skipped: " + String.join(", ", result.skippedUsernames));
+                }
+            } catch (Exception e) {
+                writer.println("Error creating users: " + e.getMessage());
+            }
+            writer.flush();
+        };
         
+        return ResponseEntity.ok()
+            .contentType(MediaType.TEXT_PLAIN)
+            .body(body);
+    }
+    
+    @GetMapping("/user/{id}")
+    public String userDetails(@PathVariable Long id,
+                              @RequestParam(required = false) String cursor,
+                              @RequestParam(required = false) Integer size,
+                              Model model, @CurrentUser User admin) {
         User user = userService.getUserById(id)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
+        TransactionHistoryService.TransactionPage page = transactionHistoryService.getPage(user, cursor, size);
+        
         model.addAttribute("admin", admin);
         model.addAttribute("viewUser", user);
         model.addAttribute("portfolios", portfolioService.getUserPortfolio(user));
-        model.addAttribute("transactions", transactionRepository.findByUserOrderByTransactionDateDesc(user));
+        model.addAttribute("transactions", page.transactions);
+        model.addAttribute("nextCursor", page.nextCursor);
+        model.addAttribute("pageSize", page.pageSize);
+        model.addAttribute("firstPage", cursor == null || cursor.isBlank());
         model.addAttribute("totalValue", portfolioService.getTotalPortfolioValue(user));
         model.addAttribute("totalProfitLoss", portfolioService.getTotalProfitLoss(user));
         model.addAttribute("totalInvested", portfolioService.getTotalInvested(user));
@@ -90,11 +175,7 @@ public class AdminController {
     @PostMapping("/user/{id}/toggle-status")
     public String toggleUserStatus(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         try {
-            User user = userService.getUserById(id)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            user.setActive(!user.getActive());
-            userService.updateUser(user);
+            User user = userService.toggleActive(id);
             
             String status = user.getActive() ? "activated" : "deactivated";
             redirectAttributes.addFlashAttribute("success", "User '" + user.getUsername() + "' " + status + " successfully");
@@ -105,13 +186,80 @@ public class AdminController {
         return "redirect:/admin/users";
     }
     
-    @GetMapping("/experiments")
-    public String viewExperiments(Model model, Authentication auth) {
-        User admin = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    // Streams experiment decisions as CSV (default) or newline-delimited JSON, gzipped when the client accepts it
+    @GetMapping("/experiments/export")
+    public ResponseEntity<StreamingResponseBody> exportDecisions(@RequestParam(defaultValue = "csv") String format,
+                                                                 @RequestParam(required = false) Long userId,
+                                                                 @RequestParam(required = false) Long sessionId,
+                                                                 @RequestParam(required = false) Integer stockIndex,
+                                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format) || "json".equalsIgnoreCase(format);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ExperimentExportService.ExportFilter filter = new ExperimentExportService.ExportFilter(userId, sessionId, stockIndex);
+        
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+            if (ndjson) {
+                experimentExportService.exportNdjson(filter, target);
+            } else {
+                experimentExportService.exportCsv(filter, target);
+            }
+            if (target instanceof GZIPOutputStream) {
+                ((GZIPOutputStream) target).finish();
+            }
+            target.flush();
+        };
         
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(ndjson ? MediaType.parseMediaType("application/x-ndjson") : MediaType.parseMediaType("text/csv"))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"experiment-decisions." + (ndjson ? "ndjson" : "csv") + "\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // True when Accept-Encoding allows gzip with a non-zero q-value, named or through "*";
+    // an explicit gzip entry wins over the wildcard
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQ = -1;
+        double wildcardQ = -1;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0; // Unreadable weight; don't assume the client wants it
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQ = Math.max(gzipQ, q);
+            } else if (coding.equals("*")) {
+                wildcardQ = q;
+            }
+        }
+        return gzipQ >= 0 ? gzipQ > 0 : wildcardQ > 0;
+    }
+    
+    @GetMapping("/experiments")
+    public String viewExperiments(Model model, @CurrentUser User admin) {
         model.addAttribute("admin", admin);
-        // This will be implemented to show all experiment results
+        
+        List<String> symbols = experimentStockRepository.findAllByOrderBySequenceOrderAsc().stream()
+            .map(ExperimentStock::getStockSymbol)
+            .toList();
+        model.addAttribute("analytics", experimentAnalyticsService.getSnapshot(symbols));
         
         return "admin/experiments";
     }
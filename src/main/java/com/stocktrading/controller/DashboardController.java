@@ -1,10 +1,10 @@
 package com.stocktrading.controller;
 
+import com.stocktrading.config.CurrentUser;
 import com.stocktrading.model.User;
 import com.stocktrading.model.ExperimentSession;
 import com.stocktrading.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,17 +13,15 @@ import org.springframework.web.bind.annotation.GetMapping;
 public class DashboardController {
     
     @Autowired
-    private UserService userService;
+    private ExperimentService experimentService;
     
     @Autowired
-    private ExperimentService experimentService;
+    private LeaderboardService leaderboardService;
     
     @GetMapping("/dashboard")
-    public String dashboard(Model model, Authentication auth) {
-        User user = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
+    public String dashboard(Model model, @CurrentUser User user) {
         model.addAttribute("user", user);
+        model.addAttribute("leaderboard", leaderboardService.getStanding(user.getId(), 10));
         
         // Check if user has an active or completed experiment session
         ExperimentSession session = experimentService.getCurrentSession(user);
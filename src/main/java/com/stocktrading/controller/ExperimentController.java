@@ -1,17 +1,16 @@
 package com.stocktrading.controller;
 
+import com.stocktrading.config.CurrentUser;
 import com.stocktrading.model.*;
 import com.stocktrading.service.*;
 import com.stocktrading.repository.ExperimentStockRepository;
-import com.opencsv.CSVReader;
+import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.*;
 
 @Controller
@@ -22,16 +21,28 @@ public class ExperimentController {
     private ExperimentService experimentService;
     
     @Autowired
-    private UserService userService;
+    private ExperimentStockRepository experimentStockRepository;
     
     @Autowired
-    private ExperimentStockRepository experimentStockRepository;
+    private ExperimentLatencyMetrics latencyMetrics;
+    
+    @Autowired
+    private BacktestService backtestService;
+    
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+    
+    @Autowired
+    private ChartRenderer chartRenderer;
+    
+    @Autowired
+    private PageVersions pageVersions;
+    
+    // When the current trading day was first shown, as "sessionId:stockIndex:day" -> epoch millis
+    private static final String PRESENTED_AT = "experiment.presentedAt";
     
     @GetMapping("/start")
-    public String startExperiment(Authentication auth, RedirectAttributes redirectAttributes) {
-        User user = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
+    public String startExperiment(@CurrentUser User user, RedirectAttributes redirectAttributes) {
         try {
             ExperimentSession session = experimentService.startExperiment(user);
             return "redirect:/experiment/trade";
@@ -42,11 +53,10 @@ public class ExperimentController {
     }
     
     @GetMapping("/trade")
-    public String tradingInterface(Model model, Authentication auth, RedirectAttributes redirectAttributes) {
-        User user = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        ExperimentSession session = experimentService.getCurrentSession(user);
+    public String tradingInterface(Model model, @CurrentUser User user, HttpSession httpSession,
+                                   RedirectAttributes redirectAttributes) throws Exception {
+        ExperimentSession session = latencyMetrics.time("trade", "session_lookup",
+            () -> experimentService.getCurrentSession(user));
         
         if (session == null) {
             return "redirect:/experiment/start";
@@ -61,7 +71,8 @@ public class ExperimentController {
             return "redirect:/experiment/summary";
         }
         
-        Map<String, Object> state = experimentService.getCurrentState(session);
+        Map<String, Object> state = latencyMetrics.time("trade", "state",
+            () -> experimentService.getCurrentState(session));
         ExperimentStock currentStock = experimentService.getCurrentStock(session);
         
         if (currentStock == null) {
@@ -71,12 +82,23 @@ public class ExperimentController {
         
         // Load current day's data
         try {
-            List<Map<String, Object>> stockData = loadStockData(currentStock, session.getCurrentDay());
+            List<Map<String, Object>> stockData = latencyMetrics.time("trade", "csv_load",
+                () -> loadStockData(currentStock, session.getCurrentDay()));
             model.addAttribute("stockData", stockData);
             model.addAttribute("currentDayData", stockData.isEmpty() ? null : stockData.get(stockData.size() - 1));
+            model.addAttribute("chartSvg", latencyMetrics.time("trade", "chart",
+                () -> chartRenderer.render(currentStock, session.getCurrentDay())));
         } catch (Exception e) {
             model.addAttribute("stockData", new ArrayList<>());
             model.addAttribute("currentDayData", null);
+            model.addAttribute("chartSvg", "");
+        }
+        
+        // Keep the first showing, so reloading the page does not reset the participant's think time
+        String position = session.getId() + ":" + session.getCurrentStockIndex() + ":" + session.getCurrentDay();
+        Object presented = httpSession.getAttribute(PRESENTED_AT);
+        if (!(presented instanceof String) || !((String) presented).startsWith(position + "=")) {
+            httpSession.setAttribute(PRESENTED_AT, position + "=" + System.currentTimeMillis());
         }
         
         model.addAttribute("state", state);
@@ -89,12 +111,12 @@ public class ExperimentController {
     
     @PostMapping("/decide")
     public String makeDecision(@RequestParam String action,
-                              Authentication auth,
-                              RedirectAttributes redirectAttributes) {
-        User user = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        ExperimentSession session = experimentService.getCurrentSession(user);
+                              @CurrentUser User user,
+                              HttpSession httpSession,
+                              RedirectAttributes redirectAttributes) throws Exception {
+        long receivedAt = System.currentTimeMillis();
+        ExperimentSession session = latencyMetrics.time("decide", "session_lookup",
+            () -> experimentService.getCurrentSession(user));
         
         if (session == null || session.getCompleted()) {
             return "redirect:/experiment/summary";
@@ -104,7 +126,8 @@ public class ExperimentController {
             ExperimentStock currentStock = experimentService.getCurrentStock(session);
             
             // Get current price
-            List<Map<String, Object>> stockData = loadStockData(currentStock, session.getCurrentDay());
+            List<Map<String, Object>> stockData = latencyMetrics.time("decide", "csv_load",
+                () -> loadStockData(currentStock, session.getCurrentDay()));
             if (stockData.isEmpty()) {
                 throw new RuntimeException("No stock data available");
             }
@@ -115,8 +138,14 @@ public class ExperimentController {
             boolean isLastDayOfStock = session.getCurrentDay() == 9;
             boolean isLastStock = session.getCurrentStockIndex() == 9;
             
+            Long thinkTimeMs = thinkTime(httpSession, session, receivedAt);
+            
             // Make decision
-            experimentService.makeDecision(session, action.toUpperCase(), currentPrice);
+            latencyMetrics.time("decide", "persist",
+                () -> experimentService.makeDecision(session, action.toUpperCase(), currentPrice, thinkTimeMs));
+            if (thinkTimeMs != null) {
+                latencyMetrics.recordThinkTime(thinkTimeMs);
+            }
             
             // Check if episode completed
             if (isLastDayOfStock) {
@@ -141,9 +170,10 @@ public class ExperimentController {
     }
     
     @GetMapping("/episode-summary")
-    public String episodeSummary(Model model, Authentication auth) {
-        User user = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    public String episodeSummary(Model model, @CurrentUser User user, ServletWebRequest webRequest) {
+        if (pageVersions.checkNotModified(webRequest, user, false)) {
+            return null;
+        }
         
         ExperimentSession session = experimentService.getCurrentSession(user);
         
@@ -168,9 +198,10 @@ public class ExperimentController {
     }
     
     @GetMapping("/summary")
-    public String finalSummary(Model model, Authentication auth) {
-        User user = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    public String finalSummary(Model model, @CurrentUser User user, ServletWebRequest webRequest) {
+        if (pageVersions.checkNotModified(webRequest, user, false)) {
+            return null;
+        }
         
         ExperimentSession session = experimentService.getCurrentSession(user);
         
@@ -181,50 +212,57 @@ public class ExperimentController {
         Map<String, Object> summary = experimentService.getSessionSummary(session);
         
         model.addAttribute("summary", summary);
+        model.addAttribute("benchmarks", backtestService.getReport());
         model.addAttribute("session", session);
         model.addAttribute("user", user);
         
         return "experiment-summary";
     }
     
-    private List<Map<String, Object>> loadStockData(ExperimentStock stock, Integer currentDay) throws Exception {
-        List<Map<String, Object>> data = new ArrayList<>();
-        
-        String csvPath = "data/" + stock.getStockSymbol().toLowerCase() + ".csv";
-        InputStream is = getClass().getClassLoader().getResourceAsStream(csvPath);
+    // Null when the day being decided was never shown in this HTTP session (e.g. a replayed POST)
+    private Long thinkTime(HttpSession httpSession, ExperimentSession session, long receivedAt) {
+        String position = session.getId() + ":" + session.getCurrentStockIndex() + ":" + session.getCurrentDay();
+        Object presented = httpSession.getAttribute(PRESENTED_AT);
+        if (presented instanceof String && ((String) presented).startsWith(position + "=")) {
+            httpSession.removeAttribute(PRESENTED_AT);
+            long shownAt = Long.parseLong(((String) presented).substring(position.length() + 1));
+            return Math.max(0, receivedAt - shownAt);
+        }
+        return null;
+    }
+    
+    private List<Map<String, Object>> loadStockData(ExperimentStock stock, Integer currentDay) {
+        PriceHistoryService.PriceHistory history = priceHistoryService.get(stock.getStockSymbol());
         
-        if (is == null) {
-            return data;
+        if (history == null) {
+            return new ArrayList<>();
         }
         
-        try (CSVReader reader = new CSVReader(new InputStreamReader(is))) {
-            reader.readNext(); // Skip header
-            
-            List<String[]> allRows = new ArrayList<>();
-            String[] line;
-            while ((line = reader.readNext()) != null) {
-                allRows.add(line);
-            }
-            
-            // Extract only the segment data up to current day
-            int startDay = stock.getSegmentStartDay();
-            int endDay = Math.min(startDay + currentDay, stock.getSegmentEndDay());
-            
-            for (int i = startDay; i <= endDay && i < allRows.size(); i++) {
-                String[] row = allRows.get(i);
-                if (row.length >= 7) {
-                    Map<String, Object> dayData = new HashMap<>();
-                    dayData.put("day", i - startDay);
-                    dayData.put("open", Double.parseDouble(row[0]));
-                    dayData.put("high", Double.parseDouble(row[1]));
-                    dayData.put("low", Double.parseDouble(row[2]));
-                    dayData.put("close", Double.parseDouble(row[3]));
-                    dayData.put("volume", Long.parseLong(row[4]));
-                    dayData.put("sma", Double.parseDouble(row[5]));
-                    dayData.put("rsi", Double.parseDouble(row[6]));
-                    data.add(dayData);
-                }
-            }
+        return segmentData(history, stock, currentDay);
+    }
+    
+    // The segment's days up to the current one, with indicators as of each day
+    private List<Map<String, Object>> segmentData(PriceHistoryService.PriceHistory history, ExperimentStock stock, Integer currentDay) {
+        List<Map<String, Object>> data = new ArrayList<>();
+        
+        int startDay = stock.getSegmentStartDay();
+        int endDay = Math.min(startDay + currentDay, stock.getSegmentEndDay());
+        
+        for (int i = startDay; i <= endDay && i < history.length; i++) {
+            Map<String, Object> dayData = new HashMap<>();
+            dayData.put("day", i - startDay);
+            dayData.put("open", history.open[i]);
+            dayData.put("high", history.high[i]);
+            dayData.put("low", history.low[i]);
+            dayData.put("close", history.close[i]);
+            dayData.put("volume", history.volume[i]);
+            dayData.put("sma", history.sma[i]);
+            dayData.put("ema", history.ema[i]);
+            dayData.put("rsi", history.rsi[i]);
+            dayData.put("atr", history.atr[i]);
+            dayData.put("bollingerUpper", history.bollingerUpper[i]);
+            dayData.put("bollingerLower", history.bollingerLower[i]);
+            data.add(dayData);
         }
         
         return data;
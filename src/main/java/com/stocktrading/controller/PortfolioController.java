@@ -1,31 +1,25 @@
 package com.stocktrading.controller;
 
+import com.stocktrading.config.CurrentUser;
 import com.stocktrading.model.User;
-import com.stocktrading.repository.TransactionRepository;
 import com.stocktrading.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @Controller
 public class PortfolioController {
     
-    @Autowired
-    private UserService userService;
-    
     @Autowired
     private PortfolioService portfolioService;
     
     @Autowired
-    private TransactionRepository transactionRepository;
+    private TransactionHistoryService transactionHistoryService;
     
     @GetMapping("/portfolio")
-    public String portfolio(Model model, Authentication auth) {
-        User user = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
+    public String portfolio(Model model, @CurrentUser User user) {
         model.addAttribute("user", user);
         model.addAttribute("portfolios", portfolioService.getUserPortfolio(user));
         model.addAttribute("totalValue", portfolioService.getTotalPortfolioValue(user));
@@ -36,12 +30,16 @@ public class PortfolioController {
     }
     
     @GetMapping("/transactions")
-    public String transactions(Model model, Authentication auth) {
-        User user = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    public String transactions(@RequestParam(required = false) String cursor,
+                               @RequestParam(required = false) Integer size,
+                               Model model, @CurrentUser User user) {
+        TransactionHistoryService.TransactionPage page = transactionHistoryService.getPage(user, cursor, size);
         
         model.addAttribute("user", user);
-        model.addAttribute("transactions", transactionRepository.findByUserOrderByTransactionDateDesc(user));
+        model.addAttribute("transactions", page.transactions);
+        model.addAttribute("nextCursor", page.nextCursor);
+        model.addAttribute("pageSize", page.pageSize);
+        model.addAttribute("firstPage", cursor == null || cursor.isBlank());
         
         return "transactions";
     }
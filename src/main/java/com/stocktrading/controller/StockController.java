@@ -1,14 +1,15 @@
 package com.stocktrading.controller;
 
+import com.stocktrading.config.CurrentUser;
 import com.stocktrading.model.Stock;
 import com.stocktrading.model.User;
+import com.stocktrading.service.PageVersions;
 import com.stocktrading.service.StockService;
-import com.stocktrading.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 @Controller
 @RequestMapping("/stocks")
@@ -18,12 +19,13 @@ public class StockController {
     private StockService stockService;
     
     @Autowired
-    private UserService userService;
+    private PageVersions pageVersions;
     
     @GetMapping
-    public String listStocks(Model model, Authentication auth) {
-        User user = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    public String listStocks(Model model, @CurrentUser User user, ServletWebRequest webRequest) {
+        if (pageVersions.checkNotModified(webRequest, user, true)) {
+            return null;
+        }
         
         model.addAttribute("stocks", stockService.getAllActiveStocks());
         model.addAttribute("user", user);
@@ -31,13 +33,14 @@ public class StockController {
     }
     
     @GetMapping("/{id}")
-    public String stockDetails(@PathVariable Long id, Model model, Authentication auth) {
+    public String stockDetails(@PathVariable Long id, Model model, @CurrentUser User user, ServletWebRequest webRequest) {
+        if (pageVersions.checkNotModified(webRequest, user, true)) {
+            return null;
+        }
+        
         Stock stock = stockService.getStockById(id)
             .orElseThrow(() -> new RuntimeException("Stock not found"));
         
-        User user = userService.getUserByUsername(auth.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
         model.addAttribute("stock", stock);
         model.addAttribute("user", user);
         return "stock-detail";
@@ -1,10 +1,10 @@
 package com.stocktrading.controller;
 
+import com.stocktrading.config.CurrentUser;
 import com.stocktrading.model.Stock;
 import com.stocktrading.model.User;
 import com.stocktrading.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
@@ -16,21 +16,15 @@ public class TradingController {
     @Autowired
     private TradingService tradingService;
     
-    @Autowired
-    private UserService userService;
-    
     @Autowired
     private StockService stockService;
     
     @PostMapping("/buy")
     public String buyStock(@RequestParam Long stockId, 
                           @RequestParam Integer quantity,
-                          Authentication auth,
+                          @CurrentUser User user,
                           RedirectAttributes redirectAttributes) {
         try {
-            User user = userService.getUserByUsername(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            
             Stock stock = stockService.getStockById(stockId)
                 .orElseThrow(() -> new RuntimeException("Stock not found"));
             
@@ -48,12 +42,9 @@ public class TradingController {
     @PostMapping("/sell")
     public String sellStock(@RequestParam Long stockId,
                            @RequestParam Integer quantity,
-                           Authentication auth,
+                           @CurrentUser User user,
                            RedirectAttributes redirectAttributes) {
         try {
-            User user = userService.getUserByUsername(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            
             Stock stock = stockService.getStockById(stockId)
                 .orElseThrow(() -> new RuntimeException("Stock not found"));
             
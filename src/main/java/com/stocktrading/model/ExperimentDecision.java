@@ -4,11 +4,14 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "experiment_decisions")
+@Table(name = "experiment_decisions", indexes = {
+    @Index(name = "idx_decisions_session_stock_day", columnList = "session_id, stock_index, day_number")
+})
 public class ExperimentDecision {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "experiment_decisions_seq")
+    @SequenceGenerator(name = "experiment_decisions_seq", sequenceName = "experiment_decisions_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne
@@ -30,10 +33,12 @@ public class ExperimentDecision {
     private Integer quantity;
     
     @Column(name = "capital_before")
-    private Double capitalBefore;
+    @Convert(converter = MoneyConverter.class)
+    private long capitalBefore;
     
     @Column(name = "capital_after")
-    private Double capitalAfter;
+    @Convert(converter = MoneyConverter.class)
+    private long capitalAfter;
     
     @Column(name = "shares_before")
     private Integer sharesBefore;
@@ -44,6 +49,10 @@ public class ExperimentDecision {
     @Column(nullable = false)
     private LocalDateTime timestamp = LocalDateTime.now();
     
+    // Time between the day being shown to the participant and their decision arriving
+    @Column(name = "think_time_ms")
+    private Long thinkTimeMs;
+    
     public ExperimentDecision() {
     }
     
@@ -104,18 +113,34 @@ public class ExperimentDecision {
     }
     
     public Double getCapitalBefore() {
-        return capitalBefore;
+        return Money.toDouble(capitalBefore);
     }
     
     public void setCapitalBefore(Double capitalBefore) {
+        this.capitalBefore = Money.of(capitalBefore);
+    }
+    
+    public long getCapitalBeforeMicros() {
+        return capitalBefore;
+    }
+    
+    public void setCapitalBeforeMicros(long capitalBefore) {
         this.capitalBefore = capitalBefore;
     }
     
     public Double getCapitalAfter() {
-        return capitalAfter;
+        return Money.toDouble(capitalAfter);
     }
     
     public void setCapitalAfter(Double capitalAfter) {
+        this.capitalAfter = Money.of(capitalAfter);
+    }
+    
+    public long getCapitalAfterMicros() {
+        return capitalAfter;
+    }
+    
+    public void setCapitalAfterMicros(long capitalAfter) {
         this.capitalAfter = capitalAfter;
     }
     
@@ -142,4 +167,12 @@ public class ExperimentDecision {
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = timestamp;
     }
+    
+    public Long getThinkTimeMs() {
+        return thinkTimeMs;
+    }
+    
+    public void setThinkTimeMs(Long thinkTimeMs) {
+        this.thinkTimeMs = thinkTimeMs;
+    }
 }
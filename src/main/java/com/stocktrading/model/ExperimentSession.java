@@ -6,7 +6,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "experiment_sessions")
+@Table(name = "experiment_sessions", indexes = {
+    @Index(name = "idx_sessions_user_completed", columnList = "user_id, completed")
+})
 public class ExperimentSession {
     
     @Id
@@ -33,7 +35,8 @@ public class ExperimentSession {
     private Integer currentDay = 0;
     
     @Column(name = "current_capital")
-    private Double currentCapital = 100000.0;
+    @Convert(converter = MoneyConverter.class)
+    private long currentCapital = Money.of(100000.0);
     
     @Column(name = "current_shares")
     private Integer currentShares = 0;
@@ -49,7 +52,7 @@ public class ExperimentSession {
         this.startTime = LocalDateTime.now();
         this.currentStockIndex = 0;
         this.currentDay = 0;
-        this.currentCapital = 100000.0;
+        this.currentCapital = Money.of(100000.0);
         this.currentShares = 0;
         this.completed = false;
     }
@@ -111,10 +114,18 @@ public class ExperimentSession {
     }
     
     public Double getCurrentCapital() {
-        return currentCapital;
+        return Money.toDouble(currentCapital);
     }
     
     public void setCurrentCapital(Double currentCapital) {
+        this.currentCapital = Money.of(currentCapital);
+    }
+    
+    public long getCurrentCapitalMicros() {
+        return currentCapital;
+    }
+    
+    public void setCurrentCapitalMicros(long currentCapital) {
         this.currentCapital = currentCapital;
     }
     
@@ -1,9 +1,17 @@
 package com.stocktrading.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
 @Entity
-@Table(name = "experiment_stocks")
+@Table(name = "experiment_stocks", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_experiment_stocks_sequence", columnNames = {"sequence_order"})
+})
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "experiment-stocks")
 public class ExperimentStock {
     
     @Id
@@ -0,0 +1,37 @@
+package com.stocktrading.model;
+
+// Fixed-point money: amounts are plain longs counting micro-units (1 = 0.000001), so sums
+// and differences are exact and the arithmetic never boxes. Doubles only appear at the
+// edges: CSV prices coming in, the DOUBLE columns (see MoneyConverter) and the templates.
+public final class Money {
+
+    public static final long SCALE = 1_000_000L;
+
+    private Money() {
+    }
+
+    public static long of(double amount) {
+        return Math.round(amount * SCALE);
+    }
+
+    public static double toDouble(long micros) {
+        return (double) micros / SCALE;
+    }
+
+    public static long times(long micros, long quantity) {
+        return Math.multiplyExact(micros, quantity);
+    }
+
+    // Rounds half away from zero, e.g. for average prices
+    public static long divide(long micros, long divisor) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        long quotient = micros / divisor;
+        long remainder = micros % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += (micros < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,19 @@
+package com.stocktrading.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Keeps the existing DOUBLE columns (and every SQL reader of them) while entities hold micro-units
+@Converter
+public class MoneyConverter implements AttributeConverter<Long, Double> {
+
+    @Override
+    public Double convertToDatabaseColumn(Long micros) {
+        return micros == null ? null : Money.toDouble(micros);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(Double amount) {
+        return amount == null ? 0L : Money.of(amount);
+    }
+}
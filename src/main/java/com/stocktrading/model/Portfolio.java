@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "portfolio")
+@Table(name = "portfolio", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_portfolio_user_stock", columnNames = {"user_id", "stock_id"})
+})
 public class Portfolio {
     
     @Id
@@ -23,7 +25,8 @@ public class Portfolio {
     private Integer quantity = 0;
     
     @Column(name = "average_buy_price", nullable = false)
-    private Double averageBuyPrice = 0.0;
+    @Convert(converter = MoneyConverter.class)
+    private long averageBuyPrice;
     
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated = LocalDateTime.now();
@@ -31,7 +34,7 @@ public class Portfolio {
     public Portfolio() {
     }
     
-    public Portfolio(User user, Stock stock, Integer quantity, Double averageBuyPrice) {
+    public Portfolio(User user, Stock stock, Integer quantity, long averageBuyPrice) {
         this.user = user;
         this.stock = stock;
         this.quantity = quantity;
@@ -40,7 +43,7 @@ public class Portfolio {
     }
     
     public Double getInvestedAmount() {
-        return quantity * averageBuyPrice;
+        return Money.toDouble(Money.times(averageBuyPrice, quantity));
     }
     
     public Double getCurrentValue() {
@@ -50,6 +53,11 @@ public class Portfolio {
     public Double getProfitLoss() {
         return getCurrentValue() - getInvestedAmount();
     }
+
+    public Double getProfitLossPercentage() {
+        Double invested = getInvestedAmount();
+        return invested == 0 ? 0.0 : getProfitLoss() / invested * 100;
+    }
     
     public Long getId() {
         return id;
@@ -84,10 +92,18 @@ public class Portfolio {
     }
     
     public Double getAverageBuyPrice() {
-        return averageBuyPrice;
+        return Money.toDouble(averageBuyPrice);
     }
     
     public void setAverageBuyPrice(Double averageBuyPrice) {
+        this.averageBuyPrice = Money.of(averageBuyPrice);
+    }
+    
+    public long getAverageBuyPriceMicros() {
+        return averageBuyPrice;
+    }
+    
+    public void setAverageBuyPriceMicros(long averageBuyPrice) {
         this.averageBuyPrice = averageBuyPrice;
     }
     
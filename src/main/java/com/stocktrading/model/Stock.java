@@ -1,14 +1,19 @@
 package com.stocktrading.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "stocks")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "stocks")
 public class Stock {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stocks_seq")
+    @SequenceGenerator(name = "stocks_seq", sequenceName = "stocks_seq", allocationSize = 50)
     private Long id;
     
     @Column(unique = true, nullable = false)
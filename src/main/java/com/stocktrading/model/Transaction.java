@@ -4,11 +4,14 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_transactions_user_date", columnList = "user_id, transaction_date, id")
+})
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne
@@ -26,10 +29,12 @@ public class Transaction {
     private Integer quantity;
     
     @Column(name = "price_per_share", nullable = false)
-    private Double pricePerShare;
+    @Convert(converter = MoneyConverter.class)
+    private long pricePerShare;
     
     @Column(name = "total_amount", nullable = false)
-    private Double totalAmount;
+    @Convert(converter = MoneyConverter.class)
+    private long totalAmount;
     
     @Column(name = "transaction_date", nullable = false)
     private LocalDateTime transactionDate = LocalDateTime.now();
@@ -37,13 +42,13 @@ public class Transaction {
     public Transaction() {
     }
     
-    public Transaction(User user, Stock stock, String transactionType, Integer quantity, Double pricePerShare) {
+    public Transaction(User user, Stock stock, String transactionType, Integer quantity, long pricePerShare) {
         this.user = user;
         this.stock = stock;
         this.transactionType = transactionType;
         this.quantity = quantity;
         this.pricePerShare = pricePerShare;
-        this.totalAmount = quantity * pricePerShare;
+        this.totalAmount = Money.times(pricePerShare, quantity);
         this.transactionDate = LocalDateTime.now();
     }
     
@@ -88,18 +93,34 @@ public class Transaction {
     }
     
     public Double getPricePerShare() {
-        return pricePerShare;
+        return Money.toDouble(pricePerShare);
     }
     
     public void setPricePerShare(Double pricePerShare) {
+        this.pricePerShare = Money.of(pricePerShare);
+    }
+    
+    public long getPricePerShareMicros() {
+        return pricePerShare;
+    }
+    
+    public void setPricePerShareMicros(long pricePerShare) {
         this.pricePerShare = pricePerShare;
     }
     
     public Double getTotalAmount() {
-        return totalAmount;
+        return Money.toDouble(totalAmount);
     }
     
     public void setTotalAmount(Double totalAmount) {
+        this.totalAmount = Money.of(totalAmount);
+    }
+    
+    public long getTotalAmountMicros() {
+        return totalAmount;
+    }
+    
+    public void setTotalAmountMicros(long totalAmount) {
         this.totalAmount = totalAmount;
     }
     
@@ -0,0 +1,63 @@
+package com.stocktrading.model;
+
+import java.time.LocalDateTime;
+
+// Read-only row for transaction history pages, projected straight from the query
+// so listing history never loads the User or Stock entities. The amounts arrive as
+// micro-units because the query applies MoneyConverter to those columns.
+public class TransactionSummary {
+
+    private final Long id;
+    private final LocalDateTime transactionDate;
+    private final String transactionType;
+    private final String stockSymbol;
+    private final String stockName;
+    private final Integer quantity;
+    private final long pricePerShare;
+    private final long totalAmount;
+
+    public TransactionSummary(Long id, LocalDateTime transactionDate, String transactionType,
+                              String stockSymbol, String stockName, Integer quantity,
+                              Long pricePerShare, Long totalAmount) {
+        this.id = id;
+        this.transactionDate = transactionDate;
+        this.transactionType = transactionType;
+        this.stockSymbol = stockSymbol;
+        this.stockName = stockName;
+        this.quantity = quantity;
+        this.pricePerShare = pricePerShare;
+        this.totalAmount = totalAmount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getTransactionDate() {
+        return transactionDate;
+    }
+
+    public String getTransactionType() {
+        return transactionType;
+    }
+
+    public String getStockSymbol() {
+        return stockSymbol;
+    }
+
+    public String getStockName() {
+        return stockName;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public Double getPricePerShare() {
+        return Money.toDouble(pricePerShare);
+    }
+
+    public Double getTotalAmount() {
+        return Money.toDouble(totalAmount);
+    }
+}
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_role_active", columnList = "role, active")
+})
 public class User {
     
     @Id
@@ -27,7 +29,8 @@ public class User {
     private String role = "USER";
     
     @Column(nullable = false)
-    private Double credits = 100000.0;
+    @Convert(converter = MoneyConverter.class)
+    private long credits = Money.of(100000.0);
     
     @Column(nullable = false)
     private Boolean active = true;
@@ -44,7 +47,7 @@ public class User {
         this.fullName = fullName;
         this.email = email;
         this.role = role;
-        this.credits = 100000.0;
+        this.credits = Money.of(100000.0);
         this.active = true;
         this.createdAt = LocalDateTime.now();
     }
@@ -98,10 +101,18 @@ public class User {
     }
     
     public Double getCredits() {
-        return credits;
+        return Money.toDouble(credits);
     }
     
     public void setCredits(Double credits) {
+        this.credits = Money.of(credits);
+    }
+    
+    public long getCreditsMicros() {
+        return credits;
+    }
+    
+    public void setCreditsMicros(long credits) {
         this.credits = credits;
     }
     
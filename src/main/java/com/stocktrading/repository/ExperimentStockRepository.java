@@ -1,13 +1,27 @@
 package com.stocktrading.repository;
 
 import com.stocktrading.model.ExperimentStock;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 import java.util.List;
 
 @Repository
 public interface ExperimentStockRepository extends JpaRepository<ExperimentStock, Long> {
+
+    // Looked up on every experiment request; served from the query cache
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")
+    })
     Optional<ExperimentStock> findBySequenceOrder(Integer order);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")
+    })
     List<ExperimentStock> findAllByOrderBySequenceOrderAsc();
 }
@@ -1,13 +1,34 @@
 package com.stocktrading.repository;
 
 import com.stocktrading.model.Transaction;
+import com.stocktrading.model.TransactionSummary;
 import com.stocktrading.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByUserOrderByTransactionDateDesc(User user);
-    List<Transaction> findAllByOrderByTransactionDateDesc();
+
+    // Keyset pagination over (transaction_date, id), newest first. Both queries walk
+    // idx_transactions_user_date, so every page costs the same regardless of depth.
+    @Query("SELECT new com.stocktrading.model.TransactionSummary(t.id, t.transactionDate, t.transactionType, " +
+           "s.symbol, s.name, t.quantity, t.pricePerShare, t.totalAmount) " +
+           "FROM Transaction t JOIN t.stock s WHERE t.user = :user " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionSummary> findLatestByUser(@Param("user") User user, Pageable pageable);
+
+    @Query("SELECT new com.stocktrading.model.TransactionSummary(t.id, t.transactionDate, t.transactionType, " +
+           "s.symbol, s.name, t.quantity, t.pricePerShare, t.totalAmount) " +
+           "FROM Transaction t JOIN t.stock s WHERE t.user = :user " +
+           "AND (t.transactionDate < :date OR (t.transactionDate = :date AND t.id < :id)) " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionSummary> findByUserBefore(@Param("user") User user,
+                                              @Param("date") LocalDateTime date,
+                                              @Param("id") Long id,
+                                              Pageable pageable);
 }
@@ -1,7 +1,11 @@
 package com.stocktrading.repository;
 
 import com.stocktrading.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 import java.util.List;
@@ -11,4 +15,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     List<User> findByRole(String role);
     Boolean existsByUsername(String username);
+    long countByRole(String role);
+    long countByRoleAndActiveTrue(String role);
+    
+    @Query("SELECT u.username FROM User u")
+    List<String> findAllUsernames();
+    
+    // Row lock held until the transaction ends, so balance changes for one user are serialized
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
 }
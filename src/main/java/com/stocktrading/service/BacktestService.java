@@ -0,0 +1,233 @@
+package com.stocktrading.service;
+
+import com.stocktrading.model.ExperimentStock;
+import com.stocktrading.model.Money;
+import com.stocktrading.repository.ExperimentStockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+// Baseline strategies played over the same ExperimentStock segments and under the same
+// rules as ExperimentService.makeDecision (10-share lots, 100,000 capital, one decision per
+// day at the close, liquidation after day 10), so participant returns have a reference.
+@Service
+public class BacktestService {
+
+    @Autowired
+    private ExperimentStockRepository experimentStockRepository;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    static final long INITIAL_CAPITAL = Money.of(100000.0);
+    static final int SHARES_PER_TRADE = 10;
+    static final int DAYS_PER_STOCK = 10;
+
+    static final int HOLD = 0;
+    static final int BUY = 1;
+    static final int SELL = -1;
+
+    private static final double RSI_OVERSOLD = 30.0;
+    private static final double RSI_OVERBOUGHT = 70.0;
+    private static final int RANDOM_RUNS = 1000;
+
+    public enum Strategy {
+        BUY_AND_HOLD("Buy & Hold"),
+        MOMENTUM("Momentum"),
+        RSI_REVERSION("RSI Reversion"),
+        RANDOM("Random (mean)");
+
+        public final String label;
+
+        Strategy(String label) {
+            this.label = label;
+        }
+    }
+
+    public static class SegmentResult {
+        public int stockIndex;
+        public String symbol;
+        public boolean available;
+        public double[] returnPercent = new double[Strategy.values().length];
+    }
+
+    public static class Report {
+        public List<String> strategies = new ArrayList<>();
+        public List<SegmentResult> segments = new ArrayList<>();
+        public double[] averageReturnPercent = new double[Strategy.values().length];
+        public String universe;
+    }
+
+    // Price and RSI as seen on each decision day of one segment
+    static class Segment {
+        final double[] close = new double[DAYS_PER_STOCK];
+        final double[] rsi = new double[DAYS_PER_STOCK];
+    }
+
+    // Segments are fixed once ExperimentDataLoader has run, so one report per universe is enough
+    private final AtomicReference<Report> cached = new AtomicReference<>();
+
+    public Report getReport() {
+        List<ExperimentStock> universe = experimentStockRepository.findAllByOrderBySequenceOrderAsc();
+        String key = universeKey(universe);
+
+        Report report = cached.get();
+        if (report != null && report.universe.equals(key)) {
+            return report;
+        }
+        report = run(universe, key);
+        cached.set(report);
+        return report;
+    }
+
+    private Report run(List<ExperimentStock> universe, String key) {
+        long start = System.currentTimeMillis();
+        Strategy[] strategies = Strategy.values();
+        int count = universe.size();
+
+        Segment[] segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = loadSegment(universe.get(i));
+        }
+
+        // Every (segment, strategy) pair is independent
+        double[][] returns = new double[count][strategies.length];
+        IntStream.range(0, count * strategies.length).parallel().forEach(task -> {
+            int i = task / strategies.length;
+            Strategy strategy = strategies[task % strategies.length];
+            if (segments[i] != null) {
+                returns[i][strategy.ordinal()] = returnPercent(strategy, segments[i], universe.get(i).getSequenceOrder());
+            }
+        });
+
+        Report report = new Report();
+        report.universe = key;
+        for (Strategy strategy : strategies) {
+            report.strategies.add(strategy.label);
+        }
+        int available = 0;
+        for (int i = 0; i < count; i++) {
+            SegmentResult result = new SegmentResult();
+            result.stockIndex = universe.get(i).getSequenceOrder();
+            result.symbol = universe.get(i).getStockSymbol();
+            result.available = segments[i] != null;
+            result.returnPercent = returns[i];
+            report.segments.add(result);
+            if (result.available) {
+                available++;
+                for (int s = 0; s < strategies.length; s++) {
+                    report.averageReturnPercent[s] += returns[i][s];
+                }
+            }
+        }
+        for (int s = 0; s < strategies.length && available > 0; s++) {
+            report.averageReturnPercent[s] /= available;
+        }
+
+        System.out.println("✓ Backtested " + strategies.length + " baseline strategies over " + available
+            + " experiment segments in " + (System.currentTimeMillis() - start) + " ms");
+        return report;
+    }
+
+    static double returnPercent(Strategy strategy, Segment segment, long seed) {
+        if (strategy != Strategy.RANDOM) {
+            return toPercent(simulate(strategy, segment, null));
+        }
+        // Seeded per segment so the baseline is stable between runs
+        SplittableRandom random = new SplittableRandom(seed);
+        double total = 0;
+        for (int run = 0; run < RANDOM_RUNS; run++) {
+            total += toPercent(simulate(strategy, segment, random));
+        }
+        return total / RANDOM_RUNS;
+    }
+
+    // Final capital in micro-units. A BUY without the cash or a SELL without 10 shares is
+    // refused by makeDecision; here it simply counts as a HOLD.
+    static long simulate(Strategy strategy, Segment segment, SplittableRandom random) {
+        long capital = INITIAL_CAPITAL;
+        int shares = 0;
+        long price = 0;
+
+        for (int day = 0; day < DAYS_PER_STOCK; day++) {
+            price = Money.of(segment.close[day]);
+            long lot = Money.times(price, SHARES_PER_TRADE);
+            int action = decide(strategy, segment, day, random);
+
+            if (action == BUY && capital >= lot) {
+                capital -= lot;
+                shares += SHARES_PER_TRADE;
+            } else if (action == SELL && shares >= SHARES_PER_TRADE) {
+                capital += lot;
+                shares -= SHARES_PER_TRADE;
+            }
+        }
+
+        // Liquidate at the last day's close
+        return capital + Money.times(price, shares);
+    }
+
+    static int decide(Strategy strategy, Segment segment, int day, SplittableRandom random) {
+        switch (strategy) {
+            case BUY_AND_HOLD:
+                return day == 0 ? BUY : HOLD;
+            case MOMENTUM:
+                if (day == 0 || segment.close[day] == segment.close[day - 1]) {
+                    return HOLD;
+                }
+                return segment.close[day] > segment.close[day - 1] ? BUY : SELL;
+            case RSI_REVERSION:
+                if (segment.rsi[day] < RSI_OVERSOLD) {
+                    return BUY;
+                }
+                return segment.rsi[day] > RSI_OVERBOUGHT ? SELL : HOLD;
+            case RANDOM:
+                return random.nextInt(3) - 1;
+            default:
+                return HOLD;
+        }
+    }
+
+    private static double toPercent(long finalCapital) {
+        return (double) (finalCapital - INITIAL_CAPITAL) / INITIAL_CAPITAL * 100;
+    }
+
+    Segment loadSegment(ExperimentStock stock) {
+        PriceHistoryService.PriceHistory history = priceHistoryService.get(stock.getStockSymbol());
+        if (history == null) {
+            System.err.println("⚠ Backtest: no data for " + stock.getStockSymbol());
+            return null;
+        }
+        return segment(history, stock.getSegmentStartDay(), stock.getSegmentEndDay());
+    }
+
+    // Day d sees the row at startDay + d (capped at endDay), exactly as the trading page does
+    static Segment segment(PriceHistoryService.PriceHistory history, int startDay, int endDay) {
+        Segment segment = new Segment();
+        boolean seen = false;
+        double close = 0;
+        double rsi = 0;
+        for (int day = 0; day < DAYS_PER_STOCK; day++) {
+            int row = startDay + day;
+            if (row <= endDay && row < history.length) {
+                close = history.close[row];
+                rsi = history.rsi[row];
+                seen = true;
+            }
+            segment.close[day] = close;
+            segment.rsi[day] = rsi;
+        }
+        return seen ? segment : null;
+    }
+
+    private static String universeKey(List<ExperimentStock> universe) {
+        StringBuilder key = new StringBuilder();
+        for (ExperimentStock stock : universe) {
+            key.append(stock.getSequenceOrder()).append(':').append(stock.getStockSymbol()).append(':')
+                .append(stock.getSegmentStartDay()).append('-').append(stock.getSegmentEndDay()).append(';');
+        }
+        return key.toString();
+    }
+}
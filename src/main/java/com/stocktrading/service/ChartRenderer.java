@@ -0,0 +1,156 @@
+package com.stocktrading.service;
+
+import com.stocktrading.model.ExperimentStock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Inline SVG chart for the trade screen: candlesticks with the SMA overlaid and an RSI panel,
+// for the days of a segment shown so far. Every participant sees the same chart for a given
+// segment and day, so each one is rendered once and then served from memory; with 10 segments
+// of 10 days that is at most 100 renders.
+@Service
+public class ChartRenderer {
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 384;
+    private static final int LEFT = 56;
+    private static final int RIGHT = 12;
+    private static final int PRICE_TOP = 12;
+    private static final int PRICE_BOTTOM = 252;
+    private static final int RSI_TOP = 276;
+    private static final int RSI_BOTTOM = 360;
+    private static final int PRICE_GRID_LINES = 4;
+
+    private static final String UP = "#4caf50";
+    private static final String DOWN = "#f44336";
+    private static final String SMA = "#667eea";
+    private static final String RSI = "#764ba2";
+    private static final String GRID = "#e0e0e0";
+    private static final String LABEL = "#999";
+
+    private final Map<String, String> charts = new ConcurrentHashMap<>();
+
+    // Empty when the segment has no data
+    public String render(ExperimentStock stock, int currentDay) {
+        String key = stock.getStockSymbol() + ":" + stock.getSegmentStartDay() + "-" + stock.getSegmentEndDay() + ":" + currentDay;
+        String chart = charts.get(key);
+        if (chart != null) {
+            return chart;
+        }
+
+        PriceHistoryService.PriceHistory history = priceHistoryService.get(stock.getStockSymbol());
+        if (history == null) {
+            return "";
+        }
+        chart = render(history, stock.getStockSymbol(), stock.getSegmentStartDay(),
+            Math.min(stock.getSegmentStartDay() + currentDay, stock.getSegmentEndDay()));
+        charts.putIfAbsent(key, chart);
+        return chart;
+    }
+
+    static String render(PriceHistoryService.PriceHistory history, String symbol, int startDay, int endDay) {
+        int last = Math.min(endDay, history.length - 1);
+        if (startDay > last) {
+            return "";
+        }
+
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = startDay; i <= last; i++) {
+            min = Math.min(min, Math.min(history.low[i], history.sma[i]));
+            max = Math.max(max, Math.max(history.high[i], history.sma[i]));
+        }
+        double padding = max > min ? (max - min) * 0.05 : 1.0;
+        min -= padding;
+        max += padding;
+
+        double slot = (double) (WIDTH - LEFT - RIGHT) / BacktestService.DAYS_PER_STOCK;
+        StringBuilder svg = new StringBuilder(4096);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 ").append(WIDTH).append(' ').append(HEIGHT)
+            .append("\" width=\"100%\" height=\"100%\" role=\"img\" aria-label=\"").append(escape(symbol))
+            .append(" price and RSI, days 1-").append(last - startDay + 1).append("\" font-family=\"sans-serif\" font-size=\"11\">");
+
+        // Price grid with labels
+        for (int line = 0; line <= PRICE_GRID_LINES; line++) {
+            double price = min + (max - min) * line / PRICE_GRID_LINES;
+            double y = y(price, min, max, PRICE_TOP, PRICE_BOTTOM);
+            svg.append("<line x1=\"").append(LEFT).append("\" x2=\"").append(WIDTH - RIGHT).append("\" y1=\"").append(f(y))
+                .append("\" y2=\"").append(f(y)).append("\" stroke=\"").append(GRID).append("\"/>");
+            svg.append("<text x=\"").append(LEFT - 6).append("\" y=\"").append(f(y + 4)).append("\" text-anchor=\"end\" fill=\"")
+                .append(LABEL).append("\">").append(f2(price)).append("</text>");
+        }
+
+        // Candles
+        for (int i = startDay; i <= last; i++) {
+            double x = LEFT + slot * (i - startDay + 0.5);
+            String color = history.close[i] >= history.open[i] ? UP : DOWN;
+            double top = y(Math.max(history.open[i], history.close[i]), min, max, PRICE_TOP, PRICE_BOTTOM);
+            double bottom = y(Math.min(history.open[i], history.close[i]), min, max, PRICE_TOP, PRICE_BOTTOM);
+            svg.append("<line x1=\"").append(f(x)).append("\" x2=\"").append(f(x))
+                .append("\" y1=\"").append(f(y(history.high[i], min, max, PRICE_TOP, PRICE_BOTTOM)))
+                .append("\" y2=\"").append(f(y(history.low[i], min, max, PRICE_TOP, PRICE_BOTTOM)))
+                .append("\" stroke=\"").append(color).append("\"/>");
+            svg.append("<rect x=\"").append(f(x - slot / 4)).append("\" y=\"").append(f(top))
+                .append("\" width=\"").append(f(slot / 2)).append("\" height=\"").append(f(Math.max(1.0, bottom - top)))
+                .append("\" fill=\"").append(color).append("\"/>");
+            svg.append("<text x=\"").append(f(x)).append("\" y=\"").append(HEIGHT - 8).append("\" text-anchor=\"middle\" fill=\"")
+                .append(LABEL).append("\">").append(i - startDay + 1).append("</text>");
+        }
+        polyline(svg, history.sma, startDay, last, slot, min, max, PRICE_TOP, PRICE_BOTTOM, SMA);
+        svg.append("<text x=\"").append(WIDTH - RIGHT).append("\" y=\"").append(PRICE_TOP + 10)
+            .append("\" text-anchor=\"end\" fill=\"").append(SMA).append("\">SMA ").append(IndicatorEngine.DEFAULT_SMA_PERIOD).append("</text>");
+
+        // RSI panel with the 30/70 bands
+        svg.append("<rect x=\"").append(LEFT).append("\" y=\"").append(RSI_TOP).append("\" width=\"").append(WIDTH - LEFT - RIGHT)
+            .append("\" height=\"").append(RSI_BOTTOM - RSI_TOP).append("\" fill=\"none\" stroke=\"").append(GRID).append("\"/>");
+        for (int level : new int[] {30, 70}) {
+            double y = y(level, 0, 100, RSI_TOP, RSI_BOTTOM);
+            svg.append("<line x1=\"").append(LEFT).append("\" x2=\"").append(WIDTH - RIGHT).append("\" y1=\"").append(f(y))
+                .append("\" y2=\"").append(f(y)).append("\" stroke=\"").append(LABEL).append("\" stroke-dasharray=\"4 3\"/>");
+            svg.append("<text x=\"").append(LEFT - 6).append("\" y=\"").append(f(y + 4)).append("\" text-anchor=\"end\" fill=\"")
+                .append(LABEL).append("\">").append(level).append("</text>");
+        }
+        polyline(svg, history.rsi, startDay, last, slot, 0, 100, RSI_TOP, RSI_BOTTOM, RSI);
+        svg.append("<text x=\"").append(WIDTH - RIGHT).append("\" y=\"").append(RSI_TOP + 12)
+            .append("\" text-anchor=\"end\" fill=\"").append(RSI).append("\">RSI ").append(IndicatorEngine.DEFAULT_RSI_PERIOD).append("</text>");
+
+        return svg.append("</svg>").toString();
+    }
+
+    private static void polyline(StringBuilder svg, double[] values, int startDay, int last, double slot,
+                                 double min, double max, int top, int bottom, String color) {
+        svg.append("<polyline fill=\"none\" stroke=\"").append(color).append("\" stroke-width=\"2\" points=\"");
+        for (int i = startDay; i <= last; i++) {
+            svg.append(f(LEFT + slot * (i - startDay + 0.5))).append(',').append(f(y(values[i], min, max, top, bottom)));
+            svg.append(i < last ? " " : "");
+        }
+        svg.append("\"/>");
+        if (startDay == last) {
+            // A single point draws no line, so mark it
+            svg.append("<circle cx=\"").append(f(LEFT + slot * 0.5)).append("\" cy=\"").append(f(y(values[last], min, max, top, bottom)))
+                .append("\" r=\"2.5\" fill=\"").append(color).append("\"/>");
+        }
+    }
+
+    private static double y(double value, double min, double max, int top, int bottom) {
+        return bottom - (value - min) / (max - min) * (bottom - top);
+    }
+
+    private static String f(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String f2(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,134 @@
+package com.stocktrading.service;
+
+import com.stocktrading.repository.TransactionRepository;
+import com.stocktrading.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// Admin dashboard totals kept in memory. They are loaded with count queries once,
+// then moved by deltas as user and transaction writes commit.
+@Service
+public class DashboardCounters {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private static final String REGULAR_ROLE = "USER";
+
+    private final AtomicReference<Counts> current = new AtomicReference<>();
+
+    private static class Counts {
+        final AtomicLong regularUsers;
+        final AtomicLong activeRegularUsers;
+        final AtomicLong transactions;
+
+        Counts(long regularUsers, long activeRegularUsers, long transactions) {
+            this.regularUsers = new AtomicLong(regularUsers);
+            this.activeRegularUsers = new AtomicLong(activeRegularUsers);
+            this.transactions = new AtomicLong(transactions);
+        }
+    }
+
+    public long getRegularUsers() {
+        return counts().regularUsers.get();
+    }
+
+    public long getActiveRegularUsers() {
+        return counts().activeRegularUsers.get();
+    }
+
+    public long getTransactions() {
+        return counts().transactions.get();
+    }
+
+    public void userCreated(String role, boolean active) {
+        if (REGULAR_ROLE.equals(role)) {
+            afterCommit(c -> {
+                c.regularUsers.incrementAndGet();
+                if (active) {
+                    c.activeRegularUsers.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    public void userDeleted(String role, boolean active) {
+        if (REGULAR_ROLE.equals(role)) {
+            afterCommit(c -> {
+                c.regularUsers.decrementAndGet();
+                if (active) {
+                    c.activeRegularUsers.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    public void userActiveChanged(String role, boolean active) {
+        if (REGULAR_ROLE.equals(role)) {
+            afterCommit(c -> c.activeRegularUsers.addAndGet(active ? 1 : -1));
+        }
+    }
+
+    public void transactionRecorded() {
+        afterCommit(c -> c.transactions.incrementAndGet());
+    }
+
+    // Drops the counters so the next read reloads them; used after writes that bypass the services
+    public void invalidate() {
+        current.set(null);
+    }
+
+    // Deltas racing a reload can be counted twice or lost, so reload periodically to correct any drift
+    @Scheduled(fixedDelayString = "${app.dashboard-counters.reconcile-ms:600000}")
+    public void reconcile() {
+        invalidate();
+    }
+
+    private Counts counts() {
+        Counts counts = current.get();
+        if (counts == null) {
+            counts = new Counts(
+                userRepository.countByRole(REGULAR_ROLE),
+                userRepository.countByRoleAndActiveTrue(REGULAR_ROLE),
+                transactionRepository.count());
+            // Another reader may have installed its load first; use that one unless an invalidate
+            // has already dropped it again, in which case this fresh load is as good
+            if (!current.compareAndSet(null, counts)) {
+                Counts installed = current.get();
+                if (installed != null) {
+                    counts = installed;
+                }
+            }
+        }
+        return counts;
+    }
+
+    private void afterCommit(Consumer<Counts> delta) {
+        Runnable apply = () -> {
+            Counts counts = current.get();
+            if (counts != null) {
+                delta.accept(counts);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.stocktrading.service;
+
+import com.stocktrading.model.ExperimentDecision;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Cohort analytics for the admin experiments page. Aggregates are updated in O(1) as decisions
+// commit and rebuilt from the database in the background, so reading them never touches
+// experiment_decisions no matter how large the cohort gets.
+@Service
+public class ExperimentAnalyticsService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public static final int TOTAL_STOCKS = 10;
+    public static final int DAYS_PER_STOCK = 10;
+    private static final double INITIAL_CAPITAL = 100000.0;
+
+    // Episode return histogram: 2.5% buckets from -25% to +25%, plus an underflow and overflow bucket
+    public static final double BUCKET_WIDTH = 2.5;
+    public static final double BUCKET_MIN = -25.0;
+    public static final int BUCKETS = 22;
+
+    private static final String[] ACTIONS = {"BUY", "SELL", "HOLD"};
+
+    // Ids per IN (...) list when checking which queued updates the rebuild already read
+    private static final int VISIBILITY_BATCH = 500;
+
+    private final AtomicReference<Aggregates> current = new AtomicReference<>(new Aggregates());
+
+    // Last decision time per in-progress session, used to measure time between decisions
+    private final Map<Long, LocalDateTime> lastDecisionAt = new ConcurrentHashMap<>();
+
+    // While a rebuild runs, live updates are also queued here and replayed onto the new aggregates
+    private volatile ConcurrentLinkedQueue<Replay> pendingReplay;
+
+    // Live updates hold the read lock while applying and queueing, so none falls between the
+    // swap to rebuilt aggregates and closing the queue
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private volatile LocalDateTime lastRefreshed;
+
+    // A lock rather than synchronized, so a refresh blocked on JDBC does not pin a virtual thread
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // What a live update recorded, so a rebuild can tell whether its snapshot already has it
+    private enum Kind {
+        SESSION_STARTED("SELECT id FROM experiment_sessions WHERE id IN (%s)"),
+        SESSION_COMPLETED("SELECT id FROM experiment_sessions WHERE completed = TRUE AND id IN (%s)"),
+        DECISION("SELECT id FROM experiment_decisions WHERE id IN (%s)");
+
+        final String visibleSql;
+
+        Kind(String visibleSql) {
+            this.visibleSql = visibleSql;
+        }
+    }
+
+    private static class Replay {
+        final Kind kind;
+        final long id;
+        final Consumer<Aggregates> update;
+
+        Replay(Kind kind, long id, Consumer<Aggregates> update) {
+            this.kind = kind;
+            this.id = id;
+            this.update = update;
+        }
+    }
+
+    private static class Aggregates {
+        final LongAdder sessionsStarted = new LongAdder();
+        final LongAdder sessionsCompleted = new LongAdder();
+        final LongAdder decisions = new LongAdder();
+        final LongAdder timedDecisions = new LongAdder();
+        final LongAdder decisionMillis = new LongAdder();
+        final AtomicLongArray actionsByDay = new AtomicLongArray(DAYS_PER_STOCK * ACTIONS.length);
+        final AtomicLongArray returnHistogram = new AtomicLongArray(TOTAL_STOCKS * BUCKETS);
+        final LongAdder[] episodes = new LongAdder[TOTAL_STOCKS];
+        final DoubleAdder[] returnSum = new DoubleAdder[TOTAL_STOCKS];
+        final DoubleAdder[] returnSumSquares = new DoubleAdder[TOTAL_STOCKS];
+
+        Aggregates() {
+            for (int i = 0; i < TOTAL_STOCKS; i++) {
+                episodes[i] = new LongAdder();
+                returnSum[i] = new DoubleAdder();
+                returnSumSquares[i] = new DoubleAdder();
+            }
+        }
+
+        void addDecision(int stockIndex, int dayNumber, String action, Long thinkMillis, Double episodeReturn) {
+            decisions.increment();
+
+            int actionIndex = actionIndex(action);
+            if (actionIndex >= 0 && dayNumber >= 0 && dayNumber < DAYS_PER_STOCK) {
+                actionsByDay.incrementAndGet(dayNumber * ACTIONS.length + actionIndex);
+            }
+
+            if (thinkMillis != null && thinkMillis >= 0) {
+                timedDecisions.increment();
+                decisionMillis.add(thinkMillis);
+            }
+
+            if (episodeReturn != null && stockIndex >= 0 && stockIndex < TOTAL_STOCKS) {
+                episodes[stockIndex].increment();
+                returnSum[stockIndex].add(episodeReturn);
+                returnSumSquares[stockIndex].add(episodeReturn * episodeReturn);
+                returnHistogram.incrementAndGet(stockIndex * BUCKETS + bucketOf(episodeReturn));
+            }
+        }
+    }
+
+    public static class StockReturns {
+        public int stockIndex;
+        public String symbol;
+        public long episodes;
+        public double meanReturn;
+        public double stdDevReturn;
+        public double p10Return;
+        public double medianReturn;
+        public double p90Return;
+        public long[] histogram;
+    }
+
+    public static class DayActionMix {
+        public int dayNumber;
+        public long buys;
+        public long sells;
+        public long holds;
+
+        public long getTotal() {
+            return buys + sells + holds;
+        }
+
+        public double getBuyPercent() {
+            return percent(buys);
+        }
+
+        public double getSellPercent() {
+            return percent(sells);
+        }
+
+        public double getHoldPercent() {
+            return percent(holds);
+        }
+
+        private double percent(long count) {
+            long total = getTotal();
+            return total == 0 ? 0.0 : count * 100.0 / total;
+        }
+    }
+
+    public static class CohortSnapshot {
+        public long sessionsStarted;
+        public long sessionsCompleted;
+        public double completionRate;
+        public long totalDecisions;
+        public double averageDecisionSeconds;
+        public List<StockReturns> stocks = new ArrayList<>();
+        public List<DayActionMix> actionMix = new ArrayList<>();
+        public LocalDateTime lastRefreshed;
+    }
+
+    public void recordSessionStarted(long sessionId) {
+        afterCommit(new Replay(Kind.SESSION_STARTED, sessionId, a -> a.sessionsStarted.increment()));
+    }
+
+    public void recordSessionCompleted(long sessionId) {
+        lastDecisionAt.remove(sessionId);
+        afterCommit(new Replay(Kind.SESSION_COMPLETED, sessionId, a -> a.sessionsCompleted.increment()));
+    }
+
+    // episodeReturnPercent is set only on the decision that closes a stock episode
+    public void recordDecision(ExperimentDecision decision, LocalDateTime sessionStart, Double episodeReturnPercent) {
+        long sessionId = decision.getSession().getId();
+        LocalDateTime previous = lastDecisionAt.put(sessionId, decision.getTimestamp());
+        if (previous == null && decision.getStockIndex() == 0 && decision.getDayNumber() == 0) {
+            previous = sessionStart;
+        }
+        Long thinkMillis = decision.getThinkTimeMs();
+        if (thinkMillis == null && previous != null) {
+            thinkMillis = Duration.between(previous, decision.getTimestamp()).toMillis();
+        }
+        Long decisionMillis = thinkMillis;
+
+        int stockIndex = decision.getStockIndex();
+        int dayNumber = decision.getDayNumber();
+        String action = decision.getAction();
+        afterCommit(new Replay(Kind.DECISION, decision.getId(),
+            a -> a.addDecision(stockIndex, dayNumber, action, decisionMillis, episodeReturnPercent)));
+    }
+
+    public CohortSnapshot getSnapshot(List<String> symbols) {
+        Aggregates a = current.get();
+        CohortSnapshot snapshot = new CohortSnapshot();
+
+        snapshot.sessionsStarted = a.sessionsStarted.sum();
+        snapshot.sessionsCompleted = a.sessionsCompleted.sum();
+        snapshot.completionRate = snapshot.sessionsStarted == 0 ? 0.0
+            : snapshot.sessionsCompleted * 100.0 / snapshot.sessionsStarted;
+        snapshot.totalDecisions = a.decisions.sum();
+        long timed = a.timedDecisions.sum();
+        snapshot.averageDecisionSeconds = timed == 0 ? 0.0 : a.decisionMillis.sum() / 1000.0 / timed;
+        snapshot.lastRefreshed = lastRefreshed;
+
+        for (int i = 0; i < TOTAL_STOCKS; i++) {
+            StockReturns stock = new StockReturns();
+            stock.stockIndex = i;
+            stock.symbol = i < symbols.size() ? symbols.get(i) : "Stock " + (i + 1);
+            stock.episodes = a.episodes[i].sum();
+            stock.histogram = new long[BUCKETS];
+            for (int b = 0; b < BUCKETS; b++) {
+                stock.histogram[b] = a.returnHistogram.get(i * BUCKETS + b);
+            }
+            if (stock.episodes > 0) {
+                stock.meanReturn = a.returnSum[i].sum() / stock.episodes;
+                double variance = a.returnSumSquares[i].sum() / stock.episodes - stock.meanReturn * stock.meanReturn;
+                stock.stdDevReturn = Math.sqrt(Math.max(0.0, variance));
+                stock.p10Return = percentile(stock.histogram, stock.episodes, 0.10);
+                stock.medianReturn = percentile(stock.histogram, stock.episodes, 0.50);
+                stock.p90Return = percentile(stock.histogram, stock.episodes, 0.90);
+            }
+            snapshot.stocks.add(stock);
+        }
+
+        for (int day = 0; day < DAYS_PER_STOCK; day++) {
+            DayActionMix mix = new DayActionMix();
+            mix.dayNumber = day;
+            mix.buys = a.actionsByDay.get(day * ACTIONS.length);
+            mix.sells = a.actionsByDay.get(day * ACTIONS.length + 1);
+            mix.holds = a.actionsByDay.get(day * ACTIONS.length + 2);
+            snapshot.actionMix.add(mix);
+        }
+
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        refresh();
+    }
+
+    // Reconciles the live aggregates with the database (other nodes, rolled-back work, restarts)
+    @Scheduled(fixedDelayString = "${app.analytics.refresh-ms:300000}", initialDelayString = "${app.analytics.refresh-ms:300000}")
+    public void refresh() {
+        if (!refreshLock.tryLock()) {
+            return; // Another refresh is already rebuilding
+        }
+        try {
+            rebuild();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Every read, including the check of queued updates, runs in one repeatable-read snapshot
+    // (a consistent read view on InnoDB and H2). The queue opens before the snapshot does, so an
+    // update is either in the snapshot or queued and replayed, whatever order ids commit in.
+    private void rebuild() {
+        ConcurrentLinkedQueue<Replay> replay = new ConcurrentLinkedQueue<>();
+        pendingReplay = replay;
+
+        try {
+            TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+            snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            snapshot.setReadOnly(true);
+            snapshot.executeWithoutResult(status -> {
+                Aggregates rebuilt = new Aggregates();
+                rebuilt.sessionsStarted.add(queryLong("SELECT COUNT(*) FROM experiment_sessions"));
+                rebuilt.sessionsCompleted.add(queryLong("SELECT COUNT(*) FROM experiment_sessions WHERE completed = TRUE"));
+                rebuildDecisions(rebuilt);
+
+                // Later updates go straight to the new aggregates; the queued ones are replayed
+                // unless they committed before the snapshot was taken
+                swapLock.writeLock().lock();
+                try {
+                    current.set(rebuilt);
+                    pendingReplay = null;
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+                Map<Kind, Set<Long>> visible = new EnumMap<>(Kind.class);
+                for (Kind kind : Kind.values()) {
+                    visible.put(kind, visibleIds(replay, kind));
+                }
+                for (Replay r : replay) {
+                    if (!visible.get(r.kind).contains(r.id)) {
+                        r.update.accept(rebuilt);
+                    }
+                }
+            });
+
+            lastRefreshed = LocalDateTime.now();
+        } catch (Exception e) {
+            pendingReplay = null;
+            System.err.println("Error refreshing experiment analytics: " + e.getMessage());
+        }
+    }
+
+    private void rebuildDecisions(Aggregates target) {
+        String sql = "SELECT d.session_id, d.stock_index, d.day_number, d.action, d.price, " +
+            "d.capital_after, d.shares_after, d.timestamp, s.start_time, d.think_time_ms " +
+            "FROM experiment_decisions d JOIN experiment_sessions s ON d.session_id = s.id " +
+            "ORDER BY d.session_id, d.stock_index, d.day_number";
+
+        long[] previousSession = {-1};
+        LocalDateTime[] previousTime = {null};
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(1000);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            long sessionId = rs.getLong(1);
+            int stockIndex = rs.getInt(2);
+            int dayNumber = rs.getInt(3);
+            Timestamp timestamp = rs.getTimestamp(8);
+            LocalDateTime decidedAt = timestamp == null ? null : timestamp.toLocalDateTime();
+
+            if (sessionId != previousSession[0]) {
+                Timestamp start = rs.getTimestamp(9);
+                previousSession[0] = sessionId;
+                previousTime[0] = start == null ? null : start.toLocalDateTime();
+            }
+
+            // Prefer the recorded think time; older rows fall back to the gap since the previous decision
+            Long thinkMillis = rs.getLong(10);
+            if (rs.wasNull()) {
+                thinkMillis = previousTime[0] == null || decidedAt == null ? null
+                    : Duration.between(previousTime[0], decidedAt).toMillis();
+            }
+            previousTime[0] = decidedAt;
+
+            // The last day's decision is followed by liquidation at that day's price
+            Double episodeReturn = null;
+            if (dayNumber == DAYS_PER_STOCK - 1) {
+                double finalCapital = rs.getDouble(6) + rs.getInt(7) * rs.getDouble(5);
+                episodeReturn = (finalCapital - INITIAL_CAPITAL) / INITIAL_CAPITAL * 100;
+            }
+
+            target.addDecision(stockIndex, dayNumber, rs.getString(4), thinkMillis, episodeReturn);
+        });
+    }
+
+    private Set<Long> visibleIds(Collection<Replay> replay, Kind kind) {
+        List<Long> ids = replay.stream().filter(r -> r.kind == kind).map(r -> r.id).distinct().toList();
+        Set<Long> visible = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += VISIBILITY_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(from + VISIBILITY_BATCH, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+            visible.addAll(jdbcTemplate.queryForList(String.format(kind.visibleSql, placeholders), Long.class, batch.toArray()));
+        }
+        return visible;
+    }
+
+    private void afterCommit(Replay replay) {
+        Runnable apply = () -> {
+            swapLock.readLock().lock();
+            try {
+                replay.update.accept(current.get());
+                ConcurrentLinkedQueue<Replay> queue = pendingReplay;
+                if (queue != null) {
+                    queue.add(replay);
+                }
+            } finally {
+                swapLock.readLock().unlock();
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private long queryLong(String sql) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class);
+        return value == null ? 0 : value;
+    }
+
+    private static int actionIndex(String action) {
+        for (int i = 0; i < ACTIONS.length; i++) {
+            if (ACTIONS[i].equals(action)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int bucketOf(double returnPercent) {
+        if (returnPercent < BUCKET_MIN) {
+            return 0;
+        }
+        int bucket = 1 + (int) ((returnPercent - BUCKET_MIN) / BUCKET_WIDTH);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    // Linear interpolation inside the histogram bucket holding the requested rank
+    private static double percentile(long[] histogram, long count, double quantile) {
+        double rank = quantile * count;
+        long seen = 0;
+        for (int b = 0; b < histogram.length; b++) {
+            if (histogram[b] > 0 && seen + histogram[b] >= rank) {
+                double lower = b == 0 ? BUCKET_MIN - BUCKET_WIDTH : BUCKET_MIN + (b - 1) * BUCKET_WIDTH;
+                double fraction = (rank - seen) / histogram[b];
+                return lower + fraction * BUCKET_WIDTH;
+            }
+            seen += histogram[b];
+        }
+        return BUCKET_MIN + (BUCKETS - 2) * BUCKET_WIDTH;
+    }
+}
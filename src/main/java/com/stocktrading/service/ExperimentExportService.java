@@ -0,0 +1,185 @@
+package com.stocktrading.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class ExperimentExportService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Rows pulled per round trip. On MySQL this needs useCursorFetch=true (set in the prod
+    // profile), or the driver buffers the whole result set regardless of this value.
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private static final String[] COLUMNS = {
+        "decision_id", "session_id", "user_id", "username", "stock_index", "day_number", "action",
+        "price", "quantity", "capital_before", "capital_after", "shares_before", "shares_after", "timestamp", "think_time_ms"
+    };
+
+    // Ordered to match idx_decisions_session_stock_day, so the database streams rows without sorting
+    private static final String SELECT_SQL =
+        "SELECT d.id, d.session_id, s.user_id, u.username, d.stock_index, d.day_number, d.action, " +
+        "d.price, d.quantity, d.capital_before, d.capital_after, d.shares_before, d.shares_after, d.timestamp, d.think_time_ms " +
+        "FROM experiment_decisions d " +
+        "JOIN experiment_sessions s ON d.session_id = s.id " +
+        "JOIN users u ON s.user_id = u.id";
+
+    public static class ExportFilter {
+        public Long userId;
+        public Long sessionId;
+        public Integer stockIndex;
+
+        public ExportFilter(Long userId, Long sessionId, Integer stockIndex) {
+            this.userId = userId;
+            this.sessionId = sessionId;
+            this.stockIndex = stockIndex;
+        }
+    }
+
+    public void exportCsv(ExportFilter filter, OutputStream out) throws IOException {
+        CSVWriter writer = new CSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.writeNext(COLUMNS, false);
+
+        String[] row = new String[COLUMNS.length];
+        stream(filter, rs -> {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Object value = rs.getObject(i + 1);
+                row[i] = value == null ? "" : value.toString();
+            }
+            writer.writeNext(row, false);
+        });
+
+        writer.flush();
+    }
+
+    public void exportNdjson(ExportFilter filter, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.setRootValueSeparator(null);
+
+        stream(filter, rs -> {
+            try {
+                json.writeStartObject();
+                json.writeNumberField("decision_id", rs.getLong(1));
+                json.writeNumberField("session_id", rs.getLong(2));
+                json.writeNumberField("user_id", rs.getLong(3));
+                json.writeStringField("username", rs.getString(4));
+                json.writeNumberField("stock_index", rs.getInt(5));
+                json.writeNumberField("day_number", rs.getInt(6));
+                json.writeStringField("action", rs.getString(7));
+                writeNullableDouble(json, "price", rs, 8);
+                writeNullableInt(json, "quantity", rs, 9);
+                writeNullableDouble(json, "capital_before", rs, 10);
+                writeNullableDouble(json, "capital_after", rs, 11);
+                writeNullableInt(json, "shares_before", rs, 12);
+                writeNullableInt(json, "shares_after", rs, 13);
+                Timestamp timestamp = rs.getTimestamp(14);
+                json.writeStringField("timestamp", timestamp == null ? null : timestamp.toLocalDateTime().toString());
+                writeNullableLong(json, "think_time_ms", rs, 15);
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        json.flush();
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException;
+    }
+
+    // Forward-only, read-only cursor: each row is written and dropped before the next is fetched
+    private void stream(ExportFilter filter, RowWriter writer) throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+
+        if (filter.userId != null) {
+            conditions.add("s.user_id = ?");
+            params.add(filter.userId);
+        }
+        if (filter.sessionId != null) {
+            conditions.add("d.session_id = ?");
+            params.add(filter.sessionId);
+        }
+        if (filter.stockIndex != null) {
+            conditions.add("d.stock_index = ?");
+            params.add(filter.stockIndex);
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY d.session_id, d.stock_index, d.day_number");
+
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        };
+
+        try {
+            jdbcTemplate.query(statement, (RowCallbackHandler) writer::write);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeNullableDouble(JsonGenerator json, String field, ResultSet rs, int column)
+            throws SQLException, IOException {
+        double value = rs.getDouble(column);
+        if (rs.wasNull()) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+
+    private void writeNullableLong(JsonGenerator json, String field, ResultSet rs, int column)
+            throws SQLException, IOException {
+        long value = rs.getLong(column);
+        if (rs.wasNull()) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+
+    private void writeNullableInt(JsonGenerator json, String field, ResultSet rs, int column)
+            throws SQLException, IOException {
+        int value = rs.getInt(column);
+        if (rs.wasNull()) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+}
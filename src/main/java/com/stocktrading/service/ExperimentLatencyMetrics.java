@@ -0,0 +1,88 @@
+package com.stocktrading.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Server-side latency per stage of the experiment endpoints, kept apart from participant think time
+// so slow pages can be told from slow participants.
+@Service
+public class ExperimentLatencyMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+    private static final String[] PERCENTILE_LABELS = {"p50Ms", "p99Ms", "p999Ms"};
+
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+
+    private volatile Timer thinkTimer;
+
+    public <T> T time(String endpoint, String stage, Callable<T> work) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            record(endpoint, stage, System.nanoTime() - start);
+        }
+    }
+
+    public void record(String endpoint, String stage, long nanos) {
+        stageTimers.computeIfAbsent(endpoint + "." + stage, key -> Timer.builder("experiment.request.stage")
+                .description("Server time spent in one stage of an experiment request")
+                .tag("endpoint", endpoint)
+                .tag("stage", stage)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordThinkTime(long millis) {
+        Timer timer = thinkTimer;
+        if (timer == null) {
+            timer = Timer.builder("experiment.think.time")
+                .description("Time from a trading day being shown to the participant's decision")
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+            thinkTimer = timer;
+        }
+        timer.record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    // endpoint.stage -> count, mean, max, p50, p99, p999 in milliseconds
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        stageTimers.forEach((key, timer) -> result.put(key, summarize(timer)));
+        if (thinkTimer != null) {
+            result.put("participant.think_time", summarize(thinkTimer));
+        }
+        return result;
+    }
+
+    private Map<String, Object> summarize(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", snapshot.count());
+        summary.put("meanMs", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        summary.put("maxMs", round(snapshot.max(TimeUnit.MILLISECONDS)));
+        ValueAtPercentile[] percentiles = snapshot.percentileValues();
+        for (int i = 0; i < percentiles.length && i < PERCENTILE_LABELS.length; i++) {
+            summary.put(PERCENTILE_LABELS[i], round(percentiles[i].value(TimeUnit.MILLISECONDS)));
+        }
+        return summary;
+    }
+
+    private double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -22,8 +22,23 @@ public class ExperimentService {
     @Autowired
     private ExperimentStockRepository experimentStockRepository;
     
-    private static final Double INITIAL_CAPITAL = 100000.0;
-    private static final Integer SHARES_PER_TRADE = 10;
+    @Autowired
+    private ExperimentAnalyticsService analyticsService;
+    
+    @Autowired
+    private MonteCarloService monteCarloService;
+    
+    @Autowired
+    private OptimalPolicyService optimalPolicyService;
+    
+    @Autowired
+    private PageVersions pageVersions;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
+    private static final long INITIAL_CAPITAL = Money.of(100000.0);
+    private static final int SHARES_PER_TRADE = 10;
     private static final Integer TOTAL_STOCKS = 10;
     private static final Integer DAYS_PER_STOCK = 10;
     private static final long TIME_LIMIT_MINUTES = 150; // 2.5 hours
@@ -36,8 +51,11 @@ public class ExperimentService {
         }
         
         // Create new session
-        ExperimentSession session = new ExperimentSession(user);
-        return sessionRepository.save(session);
+        ExperimentSession session = sessionRepository.save(new ExperimentSession(user));
+        analyticsService.recordSessionStarted(session.getId());
+        pageVersions.userChanged(user.getId());
+        leaderboardService.experimentChanged(user.getId());
+        return session;
     }
     
     public ExperimentSession getCurrentSession(User user) {
@@ -87,7 +105,9 @@ public class ExperimentService {
         return state;
     }
     
-    public ExperimentDecision makeDecision(ExperimentSession session, String action, Double currentPrice) {
+    public ExperimentDecision makeDecision(ExperimentSession session, String action, double currentPrice, Long thinkTimeMs) {
+        pageVersions.userChanged(session.getUser().getId());
+        
         // Check if session expired
         if (isSessionExpired(session)) {
             session.setCompleted(true);
@@ -103,16 +123,18 @@ public class ExperimentService {
         decision.setDayNumber(session.getCurrentDay());
         decision.setAction(action);
         decision.setPrice(currentPrice);
-        decision.setCapitalBefore(session.getCurrentCapital());
+        decision.setCapitalBeforeMicros(session.getCurrentCapitalMicros());
         decision.setSharesBefore(session.getCurrentShares());
+        decision.setThinkTimeMs(thinkTimeMs);
         
-        // Process action
-        Integer newShares = session.getCurrentShares();
-        Double newCapital = session.getCurrentCapital();
+        // Process action in fixed-point micro-units, so 100 decisions accumulate no rounding drift
+        long price = Money.of(currentPrice);
+        int newShares = session.getCurrentShares();
+        long newCapital = session.getCurrentCapitalMicros();
         
         switch (action.toUpperCase()) {
             case "BUY":
-                Double cost = currentPrice * SHARES_PER_TRADE;
+                long cost = Money.times(price, SHARES_PER_TRADE);
                 if (newCapital >= cost) {
                     newCapital -= cost;
                     newShares += SHARES_PER_TRADE;
@@ -124,7 +146,7 @@ public class ExperimentService {
                 
             case "SELL":
                 if (newShares >= SHARES_PER_TRADE) {
-                    Double revenue = currentPrice * SHARES_PER_TRADE;
+                    long revenue = Money.times(price, SHARES_PER_TRADE);
                     newCapital += revenue;
                     newShares -= SHARES_PER_TRADE;
                     decision.setQuantity(SHARES_PER_TRADE);
@@ -141,24 +163,26 @@ public class ExperimentService {
                 throw new RuntimeException("Invalid action: " + action);
         }
         
-        decision.setCapitalAfter(newCapital);
+        decision.setCapitalAfterMicros(newCapital);
         decision.setSharesAfter(newShares);
         
         // Update session
-        session.setCurrentCapital(newCapital);
+        session.setCurrentCapitalMicros(newCapital);
         session.setCurrentShares(newShares);
         
         // Advance to next day
         session.setCurrentDay(session.getCurrentDay() + 1);
         
         // Check if stock episode completed
+        Double episodeReturn = null;
         if (session.getCurrentDay() >= DAYS_PER_STOCK) {
             // Liquidate remaining shares at current price
             if (session.getCurrentShares() > 0) {
-                Double liquidationValue = session.getCurrentShares() * currentPrice;
-                session.setCurrentCapital(session.getCurrentCapital() + liquidationValue);
+                long liquidationValue = Money.times(price, session.getCurrentShares());
+                session.setCurrentCapitalMicros(session.getCurrentCapitalMicros() + liquidationValue);
                 session.setCurrentShares(0);
             }
+            episodeReturn = (double) (session.getCurrentCapitalMicros() - INITIAL_CAPITAL) / INITIAL_CAPITAL * 100;
             
             // Move to next stock
             session.setCurrentStockIndex(session.getCurrentStockIndex() + 1);
@@ -170,7 +194,7 @@ public class ExperimentService {
                 session.setEndTime(LocalDateTime.now());
             } else {
                 // Reset for next stock
-                session.setCurrentCapital(INITIAL_CAPITAL);
+                session.setCurrentCapitalMicros(INITIAL_CAPITAL);
                 session.setCurrentShares(0);
             }
         }
@@ -178,6 +202,14 @@ public class ExperimentService {
         sessionRepository.save(session);
         decisionRepository.save(decision);
         
+        analyticsService.recordDecision(decision, session.getStartTime(), episodeReturn);
+        if (episodeReturn != null) {
+            leaderboardService.experimentChanged(session.getUser().getId());
+        }
+        if (session.getCompleted()) {
+            analyticsService.recordSessionCompleted(session.getId());
+        }
+        
         return decision;
     }
     
@@ -198,10 +230,14 @@ public class ExperimentService {
         ExperimentDecision last = decisions.get(decisions.size() - 1);
         
         summary.put("stockIndex", stockIndex);
-        summary.put("initialCapital", INITIAL_CAPITAL);
-        summary.put("finalCapital", last.getCapitalAfter());
-        summary.put("returnAmount", last.getCapitalAfter() - INITIAL_CAPITAL);
-        summary.put("returnPercent", ((last.getCapitalAfter() - INITIAL_CAPITAL) / INITIAL_CAPITAL) * 100);
+        // Shares still held after the last decision are valued at its price, the way makeDecision
+        // liquidates them when the episode ends
+        long finalCapital = last.getCapitalAfterMicros() + Money.times(Money.of(last.getPrice()), last.getSharesAfter());
+        long returnAmount = finalCapital - INITIAL_CAPITAL;
+        summary.put("initialCapital", Money.toDouble(INITIAL_CAPITAL));
+        summary.put("finalCapital", Money.toDouble(finalCapital));
+        summary.put("returnAmount", Money.toDouble(returnAmount));
+        summary.put("returnPercent", (double) returnAmount / INITIAL_CAPITAL * 100);
         summary.put("totalDecisions", decisions.size());
         
         long buyCount = decisions.stream().filter(d -> "BUY".equals(d.getAction())).count();
@@ -213,6 +249,23 @@ public class ExperimentService {
         summary.put("holdCount", holdCount);
         summary.put("decisions", decisions);
         
+        // Rank the finished episode against random traders
+        if (decisions.size() == DAYS_PER_STOCK) {
+            MonteCarloService.Distribution chance = monteCarloService.getDistribution(stockIndex);
+            if (chance != null) {
+                summary.put("chancePercentile", chance.percentileRank(finalCapital));
+                summary.put("chanceMedian", chance.median);
+            }
+            
+            // Regret: how far the episode fell short of the best possible sequence of decisions
+            OptimalPolicyService.Policy optimal = optimalPolicyService.getPolicy(stockIndex);
+            if (optimal != null) {
+                summary.put("optimalReturnPercent", optimal.returnPercent);
+                summary.put("optimalActions", optimal.actions);
+                summary.put("regretPercent", (double) (optimal.finalCapitalMicros - finalCapital) / INITIAL_CAPITAL * 100);
+            }
+        }
+        
         return summary;
     }
     
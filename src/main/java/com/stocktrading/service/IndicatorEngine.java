@@ -0,0 +1,165 @@
+package com.stocktrading.service;
+
+// Technical indicators over a stream of OHLCV bars. Every update is O(1): windowed values keep
+// running sums over primitive ring buffers and the smoothed ones only need their last value.
+// Indicators only ever see bars up to the current one, so replaying a series day by day shows
+// exactly what was known on that day.
+//
+// Until a window has filled, SMA and Bollinger bands use the bars seen so far, and RSI and ATR
+// are seeded with the plain average of the changes seen so far (Wilder's seed once full).
+public class IndicatorEngine {
+
+    public static final int DEFAULT_SMA_PERIOD = 20;
+    public static final int DEFAULT_EMA_PERIOD = 20;
+    public static final int DEFAULT_RSI_PERIOD = 14;
+    public static final int DEFAULT_ATR_PERIOD = 14;
+    public static final int DEFAULT_BOLLINGER_PERIOD = 20;
+    public static final double DEFAULT_BOLLINGER_WIDTH = 2.0;
+
+    private final RollingWindow smaWindow;
+    private final RollingWindow bollingerWindow;
+    private final int emaPeriod;
+    private final int rsiPeriod;
+    private final int atrPeriod;
+    private final double bollingerWidth;
+
+    private long bars;
+    private double previousClose;
+
+    private double ema;
+    private double averageGain;
+    private double averageLoss;
+    private double atr;
+
+    public IndicatorEngine() {
+        this(DEFAULT_SMA_PERIOD, DEFAULT_EMA_PERIOD, DEFAULT_RSI_PERIOD, DEFAULT_ATR_PERIOD,
+            DEFAULT_BOLLINGER_PERIOD, DEFAULT_BOLLINGER_WIDTH);
+    }
+
+    public IndicatorEngine(int smaPeriod, int emaPeriod, int rsiPeriod, int atrPeriod,
+                           int bollingerPeriod, double bollingerWidth) {
+        if (smaPeriod < 1 || emaPeriod < 1 || rsiPeriod < 1 || atrPeriod < 1 || bollingerPeriod < 1) {
+            throw new RuntimeException("Indicator periods must be at least 1");
+        }
+        this.smaWindow = new RollingWindow(smaPeriod);
+        this.bollingerWindow = new RollingWindow(bollingerPeriod);
+        this.emaPeriod = emaPeriod;
+        this.rsiPeriod = rsiPeriod;
+        this.atrPeriod = atrPeriod;
+        this.bollingerWidth = bollingerWidth;
+    }
+
+    public void update(double open, double high, double low, double close, long volume) {
+        smaWindow.add(close);
+        bollingerWindow.add(close);
+
+        // EMA starts from the SMA of its first period, then smooths with 2 / (n + 1)
+        if (bars < emaPeriod) {
+            ema = (ema * bars + close) / (bars + 1);
+        } else {
+            ema += (close - ema) * 2.0 / (emaPeriod + 1);
+        }
+
+        if (bars == 0) {
+            atr = high - low;
+        } else {
+            double trueRange = Math.max(high, previousClose) - Math.min(low, previousClose);
+            atr = smooth(atr, trueRange, bars, atrPeriod);
+
+            // The first change is the second bar's, so change k (from 0) is smoothed like bar k
+            double change = close - previousClose;
+            averageGain = smooth(averageGain, Math.max(change, 0), bars - 1, rsiPeriod);
+            averageLoss = smooth(averageLoss, Math.max(-change, 0), bars - 1, rsiPeriod);
+        }
+
+        previousClose = close;
+        bars++;
+    }
+
+    // Plain average for the first period samples, then Wilder's (n - 1) / n smoothing
+    private static double smooth(double average, double value, long seen, int period) {
+        if (seen < period) {
+            return (average * seen + value) / (seen + 1);
+        }
+        return (average * (period - 1) + value) / period;
+    }
+
+    public long getBars() {
+        return bars;
+    }
+
+    public double getSma() {
+        return smaWindow.mean();
+    }
+
+    public double getEma() {
+        return ema;
+    }
+
+    // 50 (neutral) until the first price change
+    public double getRsi() {
+        if (bars < 2) {
+            return 50.0;
+        }
+        if (averageLoss == 0) {
+            return averageGain == 0 ? 50.0 : 100.0;
+        }
+        return 100 - 100 / (1 + averageGain / averageLoss);
+    }
+
+    public double getAtr() {
+        return atr;
+    }
+
+    public double getBollingerMiddle() {
+        return bollingerWindow.mean();
+    }
+
+    public double getBollingerUpper() {
+        return bollingerWindow.mean() + bollingerWidth * bollingerWindow.standardDeviation();
+    }
+
+    public double getBollingerLower() {
+        return bollingerWindow.mean() - bollingerWidth * bollingerWindow.standardDeviation();
+    }
+
+    // Last n values with their running sum and sum of squares
+    static class RollingWindow {
+        private final double[] values;
+        private int next;
+        private int size;
+        private double sum;
+        private double sumOfSquares;
+
+        RollingWindow(int period) {
+            values = new double[period];
+        }
+
+        void add(double value) {
+            if (size == values.length) {
+                double evicted = values[next];
+                sum -= evicted;
+                sumOfSquares -= evicted * evicted;
+            } else {
+                size++;
+            }
+            values[next] = value;
+            next = (next + 1) % values.length;
+            sum += value;
+            sumOfSquares += value * value;
+        }
+
+        double mean() {
+            return size == 0 ? 0.0 : sum / size;
+        }
+
+        // Population standard deviation; clamped because the running sums can cancel to just below 0
+        double standardDeviation() {
+            if (size == 0) {
+                return 0.0;
+            }
+            double mean = sum / size;
+            return Math.sqrt(Math.max(0.0, sumOfSquares / size - mean * mean));
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.stocktrading.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Live rankings of regular users: cumulative experiment return (sum of episode returns in their
+// latest session) and free-trading net asset value (credits plus holdings at current prices).
+// Each board is an order-statistic tree, so top-N and a user's rank are O(log n) reads while
+// decisions and trades move scores. A user's score is recomputed from the database after the
+// write that changed it commits, so updates are absolute and replaying one is harmless.
+@Service
+public class LeaderboardService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final double INITIAL_CAPITAL = 100000.0;
+
+    // Latest session by start time (id only breaks ties: pooled sequence ids are not ordered across nodes)
+    private static final String EXPERIMENT_SCORES =
+        "SELECT s.user_id, u.username, SUM(d.capital_after + d.shares_after * d.price - " + INITIAL_CAPITAL + ") / "
+            + INITIAL_CAPITAL + " * 100 FROM experiment_sessions s "
+            + "JOIN users u ON u.id = s.user_id "
+            + "JOIN experiment_decisions d ON d.session_id = s.id AND d.day_number = " + (BacktestService.DAYS_PER_STOCK - 1) + " "
+            + "WHERE u.role = 'USER' %s AND NOT EXISTS (SELECT 1 FROM experiment_sessions later "
+            + "WHERE later.user_id = s.user_id AND (later.start_time > s.start_time "
+            + "OR (later.start_time = s.start_time AND later.id > s.id))) "
+            + "GROUP BY s.user_id, u.username";
+
+    private static final String NAV_SCORES =
+        "SELECT u.id, u.username, u.credits + COALESCE(SUM(p.quantity * st.current_price), 0) FROM users u "
+            + "LEFT JOIN portfolio p ON p.user_id = u.id "
+            + "LEFT JOIN stocks st ON st.id = p.stock_id "
+            + "WHERE u.role = 'USER' %s GROUP BY u.id, u.username, u.credits";
+
+    private volatile Board experiment = new Board();
+    private volatile Board nav = new Board();
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // Users whose scores moved while a rebuild was reading; re-read once the new boards are in place
+    private volatile Set<Long> changedDuringRebuild;
+
+    public static class Entry {
+        public int rank;
+        public Long userId;
+        public String username;
+        public double score;
+    }
+
+    public static class Standing {
+        public List<Entry> experimentTop = new ArrayList<>();
+        public List<Entry> navTop = new ArrayList<>();
+        public Entry experimentEntry;
+        public Entry navEntry;
+        public int experimentPlayers;
+        public int navPlayers;
+    }
+
+    public Standing getStanding(Long userId, int limit) {
+        Standing standing = new Standing();
+        Board experimentBoard = experiment;
+        Board navBoard = nav;
+        standing.experimentTop = experimentBoard.top(limit);
+        standing.navTop = navBoard.top(limit);
+        standing.experimentPlayers = experimentBoard.size();
+        standing.navPlayers = navBoard.size();
+        if (userId != null) {
+            standing.experimentEntry = experimentBoard.entry(userId);
+            standing.navEntry = navBoard.entry(userId);
+        }
+        return standing;
+    }
+
+    public void experimentChanged(Long userId) {
+        afterCommit(userId, () -> refreshExperiment(userId));
+    }
+
+    public void navChanged(Long userId) {
+        afterCommit(userId, () -> refreshNav(userId));
+    }
+
+    // A price change or a bulk import moves many NAVs at once; rare enough to re-read the boards
+    public void navsChanged() {
+        afterCommit(null, this::refresh);
+    }
+
+    public void userRemoved(Long userId) {
+        afterCommit(userId, () -> {
+            experiment.remove(userId);
+            nav.remove(userId);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        refresh();
+    }
+
+    // Reconciles with the database (bulk imports, other nodes, rolled-back work)
+    @Scheduled(fixedDelayString = "${app.leaderboard.refresh-ms:300000}", initialDelayString = "${app.leaderboard.refresh-ms:300000}")
+    public void refresh() {
+        if (!refreshLock.tryLock()) {
+            return; // Another refresh is already rebuilding
+        }
+        try {
+            Set<Long> changed = ConcurrentHashMap.newKeySet();
+            changedDuringRebuild = changed;
+
+            Board experimentBoard = new Board();
+            Board navBoard = new Board();
+            load(String.format(EXPERIMENT_SCORES, ""), experimentBoard);
+            load(String.format(NAV_SCORES, ""), navBoard);
+            experiment = experimentBoard;
+            nav = navBoard;
+
+            changedDuringRebuild = null;
+            for (Long userId : changed) {
+                refreshUser(userId);
+            }
+        } catch (Exception e) {
+            changedDuringRebuild = null;
+            System.err.println("⚠ Could not rebuild leaderboards: " + e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshUser(Long userId) {
+        refreshExperiment(userId);
+        refreshNav(userId);
+    }
+
+    private void refreshExperiment(Long userId) {
+        reload(String.format(EXPERIMENT_SCORES, "AND s.user_id = ?"), experiment, userId);
+    }
+
+    private void refreshNav(Long userId) {
+        reload(String.format(NAV_SCORES, "AND u.id = ?"), nav, userId);
+    }
+
+    private void load(String sql, Board board) {
+        jdbcTemplate.query(sql, rs -> {
+            board.put(rs.getLong(1), rs.getString(2), rs.getDouble(3));
+        });
+    }
+
+    // Drops the user when they no longer have a score on this board (e.g. a new session)
+    private void reload(String sql, Board board, Long userId) {
+        boolean[] found = new boolean[1];
+        jdbcTemplate.query(sql, rs -> {
+            board.put(rs.getLong(1), rs.getString(2), rs.getDouble(3));
+            found[0] = true;
+        }, userId);
+        if (!found[0]) {
+            board.remove(userId);
+        }
+    }
+
+    private void afterCommit(Long userId, Runnable update) {
+        Runnable apply = () -> {
+            // Marked before updating: an update that lands on the board a rebuild is replacing is
+            // then re-read onto the new one
+            Set<Long> changed = changedDuringRebuild;
+            if (changed != null && userId != null) {
+                changed.add(userId);
+            }
+            try {
+                update.run();
+            } catch (Exception e) {
+                // The next scheduled refresh corrects the board
+                System.err.println("⚠ Could not update leaderboard: " + e.getMessage());
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // Treap ordered by score (highest first), then user id; every node knows the size of its
+    // subtree, which gives rank and the k-th entry in expected O(log n)
+    static class Board {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Node> nodes = new HashMap<>();
+        private final SplittableRandom priorities = new SplittableRandom();
+        private Node root;
+
+        private static class Node {
+            final long userId;
+            final String username;
+            final double score;
+            final int priority;
+            Node left;
+            Node right;
+            int size = 1;
+
+            Node(long userId, String username, double score, int priority) {
+                this.userId = userId;
+                this.username = username;
+                this.score = score;
+                this.priority = priority;
+            }
+        }
+
+        void put(long userId, String username, double score) {
+            lock.writeLock().lock();
+            try {
+                Node existing = nodes.get(userId);
+                if (existing != null) {
+                    if (existing.score == score && Objects.equals(existing.username, username)) {
+                        return;
+                    }
+                    root = delete(root, existing);
+                }
+                Node node = new Node(userId, username, score, priorities.nextInt());
+                nodes.put(userId, node);
+                root = insert(root, node);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(long userId) {
+            lock.writeLock().lock();
+            try {
+                Node existing = nodes.remove(userId);
+                if (existing != null) {
+                    root = delete(root, existing);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return size(root);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Null when the user is not on the board
+        Entry entry(long userId) {
+            lock.readLock().lock();
+            try {
+                Node node = nodes.get(userId);
+                if (node == null) {
+                    return null;
+                }
+                // Rank is one more than the number of entries ahead of this one
+                int ahead = 0;
+                Node current = root;
+                while (current != null) {
+                    int order = compare(node, current);
+                    if (order == 0) {
+                        ahead += size(current.left);
+                        break;
+                    }
+                    if (order < 0) {
+                        current = current.left;
+                    } else {
+                        ahead += size(current.left) + 1;
+                        current = current.right;
+                    }
+                }
+                return entry(node, ahead + 1);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Entry> top(int limit) {
+            lock.readLock().lock();
+            try {
+                List<Entry> entries = new ArrayList<>(Math.min(limit, size(root)));
+                Deque<Node> path = new ArrayDeque<>();
+                Node current = root;
+                while ((current != null || !path.isEmpty()) && entries.size() < limit) {
+                    while (current != null) {
+                        path.push(current);
+                        current = current.left;
+                    }
+                    current = path.pop();
+                    entries.add(entry(current, entries.size() + 1));
+                    current = current.right;
+                }
+                return entries;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static Entry entry(Node node, int rank) {
+            Entry entry = new Entry();
+            entry.rank = rank;
+            entry.userId = node.userId;
+            entry.username = node.username;
+            entry.score = node.score;
+            return entry;
+        }
+
+        private static Node insert(Node tree, Node node) {
+            if (tree == null) {
+                return node;
+            }
+            if (compare(node, tree) < 0) {
+                tree.left = insert(tree.left, node);
+                if (tree.left.priority > tree.priority) {
+                    tree = rotateRight(tree);
+                }
+            } else {
+                tree.right = insert(tree.right, node);
+                if (tree.right.priority > tree.priority) {
+                    tree = rotateLeft(tree);
+                }
+            }
+            update(tree);
+            return tree;
+        }
+
+        private static Node delete(Node tree, Node node) {
+            if (tree == null) {
+                return null;
+            }
+            int order = compare(node, tree);
+            if (order < 0) {
+                tree.left = delete(tree.left, node);
+            } else if (order > 0) {
+                tree.right = delete(tree.right, node);
+            } else {
+                return merge(tree.left, tree.right);
+            }
+            update(tree);
+            return tree;
+        }
+
+        // Every key in left sorts before every key in right
+        private static Node merge(Node left, Node right) {
+            if (left == null) {
+                return right;
+            }
+            if (right == null) {
+                return left;
+            }
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                update(left);
+                return left;
+            }
+            right.left = merge(left, right.left);
+            update(right);
+            return right;
+        }
+
+        private static Node rotateRight(Node tree) {
+            Node pivot = tree.left;
+            tree.left = pivot.right;
+            pivot.right = tree;
+            update(tree);
+            update(pivot);
+            return pivot;
+        }
+
+        private static Node rotateLeft(Node tree) {
+            Node pivot = tree.right;
+            tree.right = pivot.left;
+            pivot.left = tree;
+            update(tree);
+            update(pivot);
+            return pivot;
+        }
+
+        private static void update(Node node) {
+            node.size = 1 + size(node.left) + size(node.right);
+        }
+
+        private static int size(Node node) {
+            return node == null ? 0 : node.size;
+        }
+
+        private static int compare(Node a, Node b) {
+            int order = Double.compare(b.score, a.score);
+            return order != 0 ? order : Long.compare(a.userId, b.userId);
+        }
+    }
+}
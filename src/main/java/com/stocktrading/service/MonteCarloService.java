@@ -0,0 +1,242 @@
+package com.stocktrading.service;
+
+import com.stocktrading.model.ExperimentStock;
+import com.stocktrading.model.Money;
+import com.stocktrading.repository.ExperimentStockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Chance baseline for each experiment segment: millions of uniformly random BUY/SELL/HOLD
+// sequences played under the makeDecision rules. Paths are only counted into a histogram
+// sketch, never stored, and each segment's distribution is computed once and cached, so
+// ranking a participant against it is a lookup.
+@Service
+public class MonteCarloService {
+
+    @Autowired
+    private ExperimentStockRepository experimentStockRepository;
+
+    @Autowired
+    private BacktestService backtestService;
+
+    @Value("${app.montecarlo.paths:1000000}")
+    private int paths;
+
+    // Paths simulated by one ForkJoin leaf task
+    private static final int PATHS_PER_TASK = 1 << 16;
+    private static final int SKETCH_BINS = 8192;
+
+    private final Map<String, Distribution> distributions = new ConcurrentHashMap<>();
+
+    public static class Distribution {
+        public String symbol;
+        public long paths;
+        public double meanReturnPercent;
+        public double p5;
+        public double p25;
+        public double median;
+        public double p75;
+        public double p95;
+        Sketch sketch;
+
+        // Share of random paths (0-100) that finished below the given final capital
+        public double percentileRank(long finalCapitalMicros) {
+            return sketch.rank(finalCapitalMicros - BacktestService.INITIAL_CAPITAL);
+        }
+    }
+
+    // Fixed-bin histogram of capital changes (micro-units). The range is exact: with executed
+    // trades a_d = +1 (buy) or -1 (sell), the change is sum(a_d * (lastLot - lot_d)), so it
+    // never leaves +/- sum|lastLot - lot_d|. Sketches from parallel tasks merge by adding counts.
+    static class Sketch {
+        final long min;
+        final double binWidth;
+        final long[] counts;
+        long total;
+        double sum;
+
+        Sketch(long bound) {
+            min = -bound;
+            binWidth = Math.max(1.0, 2.0 * bound / SKETCH_BINS);
+            counts = new long[SKETCH_BINS];
+        }
+
+        void add(long change) {
+            int bin = (int) ((change - min) / binWidth);
+            counts[Math.min(Math.max(bin, 0), SKETCH_BINS - 1)]++;
+            total++;
+            sum += change;
+        }
+
+        Sketch merge(Sketch other) {
+            for (int i = 0; i < SKETCH_BINS; i++) {
+                counts[i] += other.counts[i];
+            }
+            total += other.total;
+            sum += other.sum;
+            return this;
+        }
+
+        // Capital change below which a fraction q of the paths fall, interpolated within its bin
+        double quantile(double q) {
+            double target = q * total;
+            long seen = 0;
+            for (int i = 0; i < SKETCH_BINS; i++) {
+                if (counts[i] > 0 && seen + counts[i] >= target) {
+                    return min + (i + (target - seen) / counts[i]) * binWidth;
+                }
+                seen += counts[i];
+            }
+            return min + SKETCH_BINS * binWidth;
+        }
+
+        double rank(long change) {
+            if (total == 0) {
+                return 0;
+            }
+            double position = (change - min) / binWidth;
+            int bin = (int) Math.floor(position);
+            if (bin < 0) {
+                return 0;
+            }
+            if (bin >= SKETCH_BINS) {
+                return 100;
+            }
+            long below = 0;
+            for (int i = 0; i < bin; i++) {
+                below += counts[i];
+            }
+            return (below + counts[bin] * (position - bin)) / total * 100;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        // Warm every segment off the startup thread so the first summary page does not pay for it
+        CompletableFuture.runAsync(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                List<ExperimentStock> universe = experimentStockRepository.findAllByOrderBySequenceOrderAsc();
+                for (ExperimentStock stock : universe) {
+                    getDistribution(stock);
+                }
+                System.out.println("✓ Monte Carlo: " + paths + " random paths per segment for " + universe.size()
+                    + " experiment segments in " + (System.currentTimeMillis() - start) + " ms");
+            } catch (Exception e) {
+                System.err.println("⚠ Monte Carlo warm-up failed: " + e.getMessage());
+            }
+        });
+    }
+
+    // Null when the segment has no price data
+    public Distribution getDistribution(ExperimentStock stock) {
+        String key = stock.getStockSymbol() + ":" + stock.getSegmentStartDay() + "-" + stock.getSegmentEndDay();
+        Distribution distribution = distributions.get(key);
+        if (distribution != null) {
+            return distribution;
+        }
+
+        BacktestService.Segment segment = backtestService.loadSegment(stock);
+        if (segment == null) {
+            return null;
+        }
+        // Two callers may race to fill the same segment; the results are identical, so keep either
+        distribution = simulate(stock.getStockSymbol(), segment, key.hashCode());
+        Distribution existing = distributions.putIfAbsent(key, distribution);
+        return existing != null ? existing : distribution;
+    }
+
+    public Distribution getDistribution(int stockIndex) {
+        return experimentStockRepository.findBySequenceOrder(stockIndex)
+            .map(this::getDistribution)
+            .orElse(null);
+    }
+
+    private Distribution simulate(String symbol, BacktestService.Segment segment, long seed) {
+        int days = BacktestService.DAYS_PER_STOCK;
+        long[] lots = new long[days];
+        for (int day = 0; day < days; day++) {
+            lots[day] = Money.times(Money.of(segment.close[day]), BacktestService.SHARES_PER_TRADE);
+        }
+        long bound = 0;
+        for (int day = 0; day < days; day++) {
+            bound += Math.abs(lots[days - 1] - lots[day]);
+        }
+
+        Sketch sketch = ForkJoinPool.commonPool().invoke(new PathTask(lots, bound, new SplittableRandom(seed), 0, paths));
+
+        Distribution distribution = new Distribution();
+        distribution.symbol = symbol;
+        distribution.paths = sketch.total;
+        distribution.sketch = sketch;
+        distribution.meanReturnPercent = toPercent(sketch.total == 0 ? 0 : sketch.sum / sketch.total);
+        distribution.p5 = toPercent(sketch.quantile(0.05));
+        distribution.p25 = toPercent(sketch.quantile(0.25));
+        distribution.median = toPercent(sketch.quantile(0.50));
+        distribution.p75 = toPercent(sketch.quantile(0.75));
+        distribution.p95 = toPercent(sketch.quantile(0.95));
+        return distribution;
+    }
+
+    private static double toPercent(double change) {
+        return change / BacktestService.INITIAL_CAPITAL * 100;
+    }
+
+    // Splits the path range in halves, each half with its own split() of the generator, so the
+    // result depends only on the seed and not on how the pool schedules the work
+    private static class PathTask extends RecursiveTask<Sketch> {
+        private final long[] lots;
+        private final long bound;
+        private final SplittableRandom random;
+        private final int from;
+        private final int to;
+
+        PathTask(long[] lots, long bound, SplittableRandom random, int from, int to) {
+            this.lots = lots;
+            this.bound = bound;
+            this.random = random;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Sketch compute() {
+            if (to - from > PATHS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                PathTask left = new PathTask(lots, bound, random.split(), from, mid);
+                PathTask right = new PathTask(lots, bound, random, mid, to);
+                left.fork();
+                Sketch sketch = right.compute();
+                return sketch.merge(left.join());
+            }
+
+            Sketch sketch = new Sketch(bound);
+            long lastLot = lots[lots.length - 1];
+            for (int path = from; path < to; path++) {
+                long capital = BacktestService.INITIAL_CAPITAL;
+                int lotsHeld = 0;
+                for (long lot : lots) {
+                    int action = random.nextInt(3) - 1;
+                    if (action == BacktestService.BUY && capital >= lot) {
+                        capital -= lot;
+                        lotsHeld++;
+                    } else if (action == BacktestService.SELL && lotsHeld > 0) {
+                        capital += lot;
+                        lotsHeld--;
+                    }
+                }
+                // Liquidate at the last close
+                sketch.add(capital + lastLot * lotsHeld - BacktestService.INITIAL_CAPITAL);
+            }
+            return sketch;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.stocktrading.service;
+
+import com.stocktrading.model.ExperimentStock;
+import com.stocktrading.model.Money;
+import com.stocktrading.repository.ExperimentStockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Exact upper bound for each experiment segment: the best return any sequence of its 10 decisions
+// could reach under the makeDecision rules, found by dynamic programming over (day, lots held).
+// Two histories that reach the same day with the same lots only differ in cash, and more cash
+// never removes an option, so keeping the richest one per state is exact.
+@Service
+public class OptimalPolicyService {
+
+    @Autowired
+    private ExperimentStockRepository experimentStockRepository;
+
+    @Autowired
+    private BacktestService backtestService;
+
+    private static final long UNREACHABLE = Long.MIN_VALUE;
+
+    private final Map<String, Policy> policies = new ConcurrentHashMap<>();
+
+    public static class Policy {
+        public String symbol;
+        public long finalCapitalMicros;
+        public double returnPercent;
+        public List<String> actions = new ArrayList<>();
+    }
+
+    // Solves every segment of the current universe; called once the universe is loaded
+    public void precompute() {
+        long start = System.currentTimeMillis();
+        List<ExperimentStock> universe = experimentStockRepository.findAllByOrderBySequenceOrderAsc();
+        int solved = 0;
+        for (ExperimentStock stock : universe) {
+            Policy policy = getPolicy(stock);
+            if (policy != null) {
+                solved++;
+                System.out.printf("  Stock %d: %s best return %.2f%% %s\n", stock.getSequenceOrder() + 1,
+                    stock.getStockSymbol(), policy.returnPercent, policy.actions);
+            }
+        }
+        System.out.println("✓ Optimal policies solved for " + solved + " of " + universe.size()
+            + " experiment segments in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // Null when the segment has no price data
+    public Policy getPolicy(ExperimentStock stock) {
+        String key = stock.getStockSymbol() + ":" + stock.getSegmentStartDay() + "-" + stock.getSegmentEndDay();
+        Policy policy = policies.get(key);
+        if (policy != null) {
+            return policy;
+        }
+
+        BacktestService.Segment segment = backtestService.loadSegment(stock);
+        if (segment == null) {
+            return null;
+        }
+        policy = solve(segment);
+        policy.symbol = stock.getStockSymbol();
+        Policy existing = policies.putIfAbsent(key, policy);
+        return existing != null ? existing : policy;
+    }
+
+    public Policy getPolicy(int stockIndex) {
+        return experimentStockRepository.findBySequenceOrder(stockIndex)
+            .map(this::getPolicy)
+            .orElse(null);
+    }
+
+    static Policy solve(BacktestService.Segment segment) {
+        int days = BacktestService.DAYS_PER_STOCK;
+        long[] lots = new long[days];
+        for (int day = 0; day < days; day++) {
+            lots[day] = Money.times(Money.of(segment.close[day]), BacktestService.SHARES_PER_TRADE);
+        }
+
+        // capital[day][held] = most cash at the start of day with held lots; action[day + 1][held]
+        // is the decision on day that led there
+        long[][] capital = new long[days + 1][days + 1];
+        int[][] action = new int[days + 1][days + 1];
+        for (long[] row : capital) {
+            Arrays.fill(row, UNREACHABLE);
+        }
+        capital[0][0] = BacktestService.INITIAL_CAPITAL;
+
+        for (int day = 0; day < days; day++) {
+            for (int held = 0; held <= day; held++) {
+                long cash = capital[day][held];
+                if (cash == UNREACHABLE) {
+                    continue;
+                }
+                // HOLD first, so a trade is only chosen when it is strictly better
+                relax(capital, action, day + 1, held, cash, BacktestService.HOLD);
+                if (held > 0) {
+                    relax(capital, action, day + 1, held - 1, cash + lots[day], BacktestService.SELL);
+                }
+                if (cash >= lots[day]) {
+                    relax(capital, action, day + 1, held + 1, cash - lots[day], BacktestService.BUY);
+                }
+            }
+        }
+
+        // Held lots are liquidated at the last close, so trading on the last day changes nothing;
+        // among equal outcomes prefer the one that holds then
+        int bestHeld = 0;
+        long best = UNREACHABLE;
+        for (int held = 0; held <= days; held++) {
+            if (capital[days][held] == UNREACHABLE) {
+                continue;
+            }
+            long value = capital[days][held] + lots[days - 1] * held;
+            if (value > best || (value == best && action[days][held] == BacktestService.HOLD)) {
+                best = value;
+                bestHeld = held;
+            }
+        }
+
+        Policy policy = new Policy();
+        policy.finalCapitalMicros = best;
+        policy.returnPercent = (double) (best - BacktestService.INITIAL_CAPITAL) / BacktestService.INITIAL_CAPITAL * 100;
+
+        // Walk the decisions back from the best final state
+        String[] path = new String[days];
+        int held = bestHeld;
+        for (int day = days; day > 0; day--) {
+            int taken = action[day][held];
+            path[day - 1] = taken == BacktestService.BUY ? "BUY" : taken == BacktestService.SELL ? "SELL" : "HOLD";
+            held -= taken;
+        }
+        policy.actions.addAll(Arrays.asList(path));
+        return policy;
+    }
+
+    private static void relax(long[][] capital, int[][] action, int day, int held, long cash, int taken) {
+        if (cash > capital[day][held]) {
+            capital[day][held] = cash;
+            action[day][held] = taken;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.stocktrading.service;
+
+import com.stocktrading.model.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory versions of what the stock and experiment summary pages are rendered from, so their
+// ETags can be checked before any repository access. The stock version moves whenever a Stock is
+// saved (its lastUpdated changes); a user's version moves with their credits, holdings and
+// experiment decisions. Versions start again on restart, so the ETag also carries a per-boot id.
+// They only see writes made through this node.
+@Service
+public class PageVersions {
+
+    private final String bootId = Long.toHexString(new SecureRandom().nextLong());
+
+    private final AtomicLong stocks = new AtomicLong();
+    private final Map<Long, AtomicLong> users = new ConcurrentHashMap<>();
+
+    public void stocksChanged() {
+        bump(stocks::incrementAndGet);
+    }
+
+    public void userChanged(Long userId) {
+        if (userId != null) {
+            bump(() -> users.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet());
+        }
+    }
+
+    // True when the client already has this version of the page; the caller then returns null and
+    // Spring answers 304 Not Modified without rendering
+    public boolean checkNotModified(ServletWebRequest webRequest, User user, boolean includesStocks) {
+        HttpServletRequest request = webRequest.getRequest();
+
+        // A flash message is shown once, so that response must not be reused
+        if (RequestContextUtils.getInputFlashMap(request) != null) {
+            return false;
+        }
+
+        // Pages carry the session's CSRF token, which changes with the session (e.g. on login)
+        HttpSession session = request.getSession(false);
+        String etag = "W/\"" + bootId
+            + "-" + (session == null ? "0" : Integer.toHexString(session.getId().hashCode()))
+            + "-" + user.getId() + "." + version(user.getId())
+            + (includesStocks ? "-" + stocks.get() : "") + "\"";
+
+        // Revalidate on every use instead of Spring Security's default no-store
+        webRequest.getResponse().setHeader("Cache-Control", "private, no-cache");
+        return webRequest.checkNotModified(etag);
+    }
+
+    private long version(Long userId) {
+        AtomicLong version = users.get(userId);
+        return version == null ? 0 : version.get();
+    }
+
+    // Bump now and again after commit: a page rendered in between from the old rows then carries
+    // a version that is already out of date, instead of one that looks current
+    private void bump(Runnable increment) {
+        increment.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment.run();
+                }
+            });
+        }
+    }
+}
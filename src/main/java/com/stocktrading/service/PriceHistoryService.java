@@ -0,0 +1,134 @@
+package com.stocktrading.service;
+
+import com.opencsv.CSVReader;
+import org.springframework.stereotype.Service;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Daily bars for each data/<symbol>.csv with their indicators, parsed once and kept in primitive
+// arrays. Only the OHLCV columns are read; SMA, EMA, RSI, ATR and Bollinger bands are computed
+// by IndicatorEngine, so the files can be plain OHLCV and extra columns are ignored.
+@Service
+public class PriceHistoryService {
+
+    private final Map<String, PriceHistory> histories = new ConcurrentHashMap<>();
+
+    public static class PriceHistory {
+        public int length;
+        public double[] open;
+        public double[] high;
+        public double[] low;
+        public double[] close;
+        public long[] volume;
+        public double[] sma;
+        public double[] ema;
+        public double[] rsi;
+        public double[] atr;
+        public double[] bollingerUpper;
+        public double[] bollingerLower;
+        public int skippedRows;
+
+        PriceHistory(int capacity) {
+            open = new double[capacity];
+            high = new double[capacity];
+            low = new double[capacity];
+            close = new double[capacity];
+            volume = new long[capacity];
+            sma = new double[capacity];
+            ema = new double[capacity];
+            rsi = new double[capacity];
+            atr = new double[capacity];
+            bollingerUpper = new double[capacity];
+            bollingerLower = new double[capacity];
+        }
+
+        void add(IndicatorEngine engine, double o, double h, double l, double c, long v) {
+            if (length == close.length) {
+                grow();
+            }
+            engine.update(o, h, l, c, v);
+            open[length] = o;
+            high[length] = h;
+            low[length] = l;
+            close[length] = c;
+            volume[length] = v;
+            sma[length] = engine.getSma();
+            ema[length] = engine.getEma();
+            rsi[length] = engine.getRsi();
+            atr[length] = engine.getAtr();
+            bollingerUpper[length] = engine.getBollingerUpper();
+            bollingerLower[length] = engine.getBollingerLower();
+            length++;
+        }
+
+        private void grow() {
+            int capacity = Math.max(16, close.length * 2);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+            sma = Arrays.copyOf(sma, capacity);
+            ema = Arrays.copyOf(ema, capacity);
+            rsi = Arrays.copyOf(rsi, capacity);
+            atr = Arrays.copyOf(atr, capacity);
+            bollingerUpper = Arrays.copyOf(bollingerUpper, capacity);
+            bollingerLower = Arrays.copyOf(bollingerLower, capacity);
+        }
+    }
+
+    // Null when there is no data file for the symbol
+    public PriceHistory get(String symbol) {
+        String csvPath = "data/" + symbol.toLowerCase() + ".csv";
+        PriceHistory history = histories.get(csvPath);
+        if (history != null) {
+            return history;
+        }
+
+        InputStream is = getClass().getClassLoader().getResourceAsStream(csvPath);
+        if (is == null) {
+            return null;
+        }
+        try {
+            history = parse(new InputStreamReader(is));
+        } catch (Exception e) {
+            throw new RuntimeException("Could not read " + csvPath + ": " + e.getMessage());
+        }
+        if (history.skippedRows > 0) {
+            System.err.println("⚠ " + csvPath + ": skipped " + history.skippedRows + " rows without numeric open,high,low,close,volume");
+        }
+        PriceHistory existing = histories.putIfAbsent(csvPath, history);
+        return existing != null ? existing : history;
+    }
+
+    // Day i of the result is the i-th usable row after the header
+    public static PriceHistory parse(Reader csv) throws Exception {
+        PriceHistory history = new PriceHistory(256);
+        IndicatorEngine engine = new IndicatorEngine();
+
+        try (CSVReader reader = new CSVReader(csv)) {
+            reader.readNext(); // Skip header
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                if (line.length < 5) {
+                    history.skippedRows++;
+                    continue;
+                }
+                try {
+                    history.add(engine,
+                        Double.parseDouble(line[0]), Double.parseDouble(line[1]),
+                        Double.parseDouble(line[2]), Double.parseDouble(line[3]),
+                        (long) Double.parseDouble(line[4]));
+                } catch (NumberFormatException e) {
+                    history.skippedRows++;
+                }
+            }
+        }
+
+        return history;
+    }
+}
@@ -15,6 +15,12 @@ public class StockService {
     @Autowired
     private StockRepository stockRepository;
     
+    @Autowired
+    private PageVersions pageVersions;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
     public List<Stock> getAllActiveStocks() {
         return stockRepository.findByActiveTrue();
     }
@@ -32,6 +38,9 @@ public class StockService {
     }
     
     public Stock saveStock(Stock stock) {
-        return stockRepository.save(stock);
+        Stock saved = stockRepository.save(stock);
+        pageVersions.stocksChanged();
+        leaderboardService.navsChanged();
+        return saved;
     }
 }
@@ -23,36 +23,60 @@ public class TradingService {
     @Autowired
     private PortfolioRepository portfolioRepository;
     
-    public Transaction buyStock(User user, Stock stock, Integer quantity) {
-        Double totalCost = stock.getCurrentPrice() * quantity;
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private DashboardCounters dashboardCounters;
+    
+    @Autowired
+    private PageVersions pageVersions;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
+    public Transaction buyStock(User caller, Stock stock, Integer quantity) {
+        // The caller's User may be a cached copy; balances are only read from the locked row
+        User user = lockUser(caller);
+        
+        // All amounts below are fixed-point micro-units (see Money)
+        long price = Money.of(stock.getCurrentPrice());
+        long totalCost = Money.times(price, quantity);
         
-        if (user.getCredits() < totalCost) {
+        if (user.getCreditsMicros() < totalCost) {
             throw new RuntimeException("Insufficient credits");
         }
         
         // Deduct credits
-        user.setCredits(user.getCredits() - totalCost);
+        user.setCreditsMicros(user.getCreditsMicros() - totalCost);
         userRepository.save(user);
+        userCache.evict(user.getUsername());
+        pageVersions.userChanged(user.getId());
+        leaderboardService.navChanged(user.getId());
         
         // Create transaction
-        Transaction transaction = new Transaction(user, stock, "BUY", quantity, stock.getCurrentPrice());
+        Transaction transaction = new Transaction(user, stock, "BUY", quantity, price);
         transactionRepository.save(transaction);
+        dashboardCounters.transactionRecorded();
         
         // Update portfolio
         Portfolio portfolio = portfolioRepository.findByUserAndStock(user, stock)
-            .orElse(new Portfolio(user, stock, 0, 0.0));
+            .orElse(new Portfolio(user, stock, 0, 0L));
         
-        Double newAverageBuyPrice = ((portfolio.getQuantity() * portfolio.getAverageBuyPrice()) + totalCost) 
-                                    / (portfolio.getQuantity() + quantity);
-        portfolio.setQuantity(portfolio.getQuantity() + quantity);
-        portfolio.setAverageBuyPrice(newAverageBuyPrice);
+        int heldQuantity = portfolio.getQuantity();
+        long newAverageBuyPrice = Money.divide(Money.times(portfolio.getAverageBuyPriceMicros(), heldQuantity) + totalCost,
+                                               heldQuantity + quantity);
+        portfolio.setQuantity(heldQuantity + quantity);
+        portfolio.setAverageBuyPriceMicros(newAverageBuyPrice);
         portfolio.setLastUpdated(LocalDateTime.now());
         portfolioRepository.save(portfolio);
         
         return transaction;
     }
     
-    public Transaction sellStock(User user, Stock stock, Integer quantity) {
+    public Transaction sellStock(User caller, Stock stock, Integer quantity) {
+        User user = lockUser(caller);
+        
         Portfolio portfolio = portfolioRepository.findByUserAndStock(user, stock)
             .orElseThrow(() -> new RuntimeException("Stock not in portfolio"));
         
@@ -60,15 +84,20 @@ public class TradingService {
             throw new RuntimeException("Insufficient stock quantity");
         }
         
-        Double totalRevenue = stock.getCurrentPrice() * quantity;
+        long price = Money.of(stock.getCurrentPrice());
+        long totalRevenue = Money.times(price, quantity);
         
         // Add credits
-        user.setCredits(user.getCredits() + totalRevenue);
+        user.setCreditsMicros(user.getCreditsMicros() + totalRevenue);
         userRepository.save(user);
+        userCache.evict(user.getUsername());
+        pageVersions.userChanged(user.getId());
+        leaderboardService.navChanged(user.getId());
         
         // Create transaction
-        Transaction transaction = new Transaction(user, stock, "SELL", quantity, stock.getCurrentPrice());
+        Transaction transaction = new Transaction(user, stock, "SELL", quantity, price);
         transactionRepository.save(transaction);
+        dashboardCounters.transactionRecorded();
         
         // Update portfolio
         portfolio.setQuantity(portfolio.getQuantity() - quantity);
@@ -82,4 +111,9 @@ public class TradingService {
         
         return transaction;
     }
+    
+    private User lockUser(User caller) {
+        return userRepository.findByIdForUpdate(caller.getId())
+            .orElseThrow(() -> new RuntimeException("User not found"));
+    }
 }
@@ -0,0 +1,92 @@
+package com.stocktrading.service;
+
+import com.stocktrading.model.TransactionSummary;
+import com.stocktrading.model.User;
+import com.stocktrading.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+public class TransactionHistoryService {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    public static class TransactionPage {
+        public List<TransactionSummary> transactions;
+        public String nextCursor;
+        public boolean hasNext;
+        public int pageSize;
+
+        public TransactionPage(List<TransactionSummary> transactions, String nextCursor, boolean hasNext, int pageSize) {
+            this.transactions = transactions;
+            this.nextCursor = nextCursor;
+            this.hasNext = hasNext;
+            this.pageSize = pageSize;
+        }
+
+        public List<TransactionSummary> getTransactions() {
+            return transactions;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public boolean isHasNext() {
+            return hasNext;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+    }
+
+    // cursor is null for the newest page, otherwise the nextCursor of the previous page
+    public TransactionPage getPage(User user, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // Fetch one extra row to learn whether an older page exists without a count query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<TransactionSummary> rows;
+
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findLatestByUser(user, limit);
+        } else {
+            int separator = cursor.lastIndexOf('_');
+            LocalDateTime date;
+            Long id;
+            try {
+                date = LocalDateTime.parse(cursor.substring(0, separator));
+                id = Long.parseLong(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                // The cursor comes from the query string, so a bad one is the client's error
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page cursor");
+            }
+            rows = transactionRepository.findByUserBefore(user, date, id, limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            TransactionSummary last = rows.get(rows.size() - 1);
+            nextCursor = last.getTransactionDate() + "_" + last.getId();
+        }
+
+        return new TransactionPage(rows, nextCursor, hasNext, pageSize);
+    }
+}
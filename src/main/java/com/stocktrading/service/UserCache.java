@@ -0,0 +1,132 @@
+package com.stocktrading.service;
+
+import com.stocktrading.model.User;
+import com.stocktrading.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Service
+public class UserCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.user-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${app.user-cache.max-size:1000}")
+    private int maxSize;
+
+    private final ConcurrentHashMap<String, CachedUser> cache = new ConcurrentHashMap<>();
+
+    // Invalidation generations, striped by username. An eviction bumps the stripe before removing
+    // the entry, and a load only stores its row if the stripe has not moved since it began, so a
+    // row read before a write commits can't be cached after that write's eviction.
+    private static final int GENERATION_STRIPES = 64;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private static class CachedUser {
+        final User user;
+        final long expiresAt;
+
+        CachedUser(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public Optional<User> getByUsername(String username) {
+        long now = System.nanoTime();
+        CachedUser cached = cache.get(username);
+
+        if (cached != null && cached.expiresAt - now > 0) {
+            return Optional.of(copyOf(cached.user));
+        }
+
+        int stripe = stripe(username);
+        long generation = generations.get(stripe);
+        Optional<User> loaded = userRepository.findByUsername(username);
+        if (loaded.isPresent()) {
+            if (cache.size() >= maxSize) {
+                evictExpired(now);
+            }
+            if (cache.size() < maxSize) {
+                CachedUser fresh = new CachedUser(copyOf(loaded.get()), now + ttlSeconds * 1_000_000_000L);
+                // Checked under the entry's lock, which the eviction's remove also takes
+                cache.compute(username, (key, current) -> generations.get(stripe) == generation ? fresh : current);
+            }
+        } else {
+            cache.remove(username);
+        }
+
+        return loaded;
+    }
+
+    public void evict(String username) {
+        if (username != null) {
+            invalidate(username);
+            afterCommit(() -> invalidate(username));
+        }
+    }
+
+    public void evictById(Long userId) {
+        if (userId != null) {
+            invalidateById(userId);
+            afterCommit(() -> invalidateById(userId));
+        }
+    }
+
+    private void invalidate(String username) {
+        generations.incrementAndGet(stripe(username));
+        cache.remove(username);
+    }
+
+    // The username isn't known here, so every stripe moves
+    private void invalidateById(Long userId) {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.values().removeIf(c -> userId.equals(c.user.getId()));
+    }
+
+    private static int stripe(String username) {
+        return (username.hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    // Evict again once the write is visible, so a concurrent reload can't re-cache the old row
+    private void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private void evictExpired(long now) {
+        cache.values().removeIf(c -> c.expiresAt - now <= 0);
+    }
+
+    // Every caller gets its own detached copy so request threads never share a mutable entity
+    private User copyOf(User source) {
+        User user = new User(source.getUsername(), source.getPassword(), source.getFullName(),
+                             source.getEmail(), source.getRole());
+        user.setId(source.getId());
+        user.setCreditsMicros(source.getCreditsMicros());
+        user.setActive(source.getActive());
+        user.setCreatedAt(source.getCreatedAt());
+        return user;
+    }
+}
@@ -0,0 +1,171 @@
+package com.stocktrading.service;
+
+import com.stocktrading.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+// Validation and BCrypt hashing run before any transaction is opened; only the final username
+// check and the inserts hold a connection, and progress is reported once they have committed
+@Service
+public class UserProvisioningService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DashboardCounters dashboardCounters;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.provisioning.batch-size:500}")
+    private int batchSize;
+
+    private static final Double INITIAL_CREDITS = 100000.0;
+
+    private static final Set<String> ROLES = Set.of("USER", "ADMIN");
+
+    private static final String INSERT_SQL =
+        "INSERT INTO users (username, password, full_name, email, role, credits, active, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public static class UserSpec {
+        public String username;
+        public String password;
+        public String fullName;
+        public String email;
+        public String role;
+
+        public UserSpec(String username, String password, String fullName, String email, String role) {
+            this.username = username;
+            this.password = password;
+            this.fullName = fullName;
+            this.email = email;
+            this.role = role;
+        }
+    }
+
+    public static class ProvisioningResult {
+        public int requested;
+        public int created;
+        public int skipped;
+        public List<String> skippedUsernames = new ArrayList<>();
+    }
+
+    // May be called from the hashing worker threads
+    public interface ProgressListener {
+        void onProgress(String stage, int done, int total);
+    }
+
+    public ProvisioningResult provisionUsers(List<UserSpec> specs) {
+        return provisionUsers(specs, (stage, done, total) -> { });
+    }
+
+    public ProvisioningResult provisionUsers(List<UserSpec> specs, ProgressListener listener) {
+        ProvisioningResult result = new ProvisioningResult();
+        result.requested = specs.size();
+
+        // Drop incomplete rows, unknown roles, duplicates within the batch and usernames that already
+        // exist, so no time is spent hashing passwords for them (read without holding a transaction)
+        Set<String> existing = new HashSet<>(userRepository.findAllUsernames());
+        List<UserSpec> accepted = new ArrayList<>();
+        List<String> roles = new ArrayList<>();
+        for (UserSpec spec : specs) {
+            String role = isBlank(spec.role) ? "USER" : spec.role.trim().toUpperCase();
+            if (isBlank(spec.username) || isBlank(spec.password) || isBlank(spec.fullName)
+                    || isBlank(spec.email) || !ROLES.contains(role) || !existing.add(spec.username)) {
+                result.skipped++;
+                result.skippedUsernames.add(spec.username);
+            } else {
+                accepted.add(spec);
+                roles.add(role);
+            }
+        }
+
+        String[] hashes = hashPasswords(accepted, listener);
+
+        // Usernames taken while hashing are skipped too; everything else is inserted in one transaction
+        List<Object[]> rows = new ArrayList<>(accepted.size());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Set<String> taken = new HashSet<>(userRepository.findAllUsernames());
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (int i = 0; i < accepted.size(); i++) {
+                UserSpec spec = accepted.get(i);
+                if (taken.contains(spec.username)) {
+                    result.skipped++;
+                    result.skippedUsernames.add(spec.username);
+                } else {
+                    rows.add(new Object[] {
+                        spec.username, hashes[i], spec.fullName, spec.email, roles.get(i), INITIAL_CREDITS, true, now
+                    });
+                }
+            }
+
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows.subList(from, Math.min(from + batchSize, rows.size())));
+            }
+            for (Object[] row : rows) {
+                dashboardCounters.userCreated((String) row[4], true);
+            }
+            if (!rows.isEmpty()) {
+                leaderboardService.navsChanged();
+            }
+        });
+
+        listener.onProgress("inserted", rows.size(), rows.size());
+        result.created = rows.size();
+        return result;
+    }
+
+    // BCrypt dominates provisioning time, so spread it over every core
+    private String[] hashPasswords(List<UserSpec> specs, ProgressListener listener) {
+        String[] hashes = new String[specs.size()];
+        AtomicInteger hashed = new AtomicInteger();
+        int reportEvery = Math.max(1, specs.size() / 20);
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            pool.submit(() -> IntStream.range(0, specs.size()).parallel().forEach(i -> {
+                hashes[i] = passwordEncoder.encode(specs.get(i).password);
+                int done = hashed.incrementAndGet();
+                if (done % reportEvery == 0 || done == specs.size()) {
+                    listener.onProgress("hashed", done, specs.size());
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Provisioning interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error hashing passwords: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        return hashes;
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
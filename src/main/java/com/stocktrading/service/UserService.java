@@ -1,5 +1,6 @@
 package com.stocktrading.service;
 
+import com.stocktrading.model.Money;
 import com.stocktrading.model.User;
 import com.stocktrading.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +20,18 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private DashboardCounters dashboardCounters;
+    
+    @Autowired
+    private PageVersions pageVersions;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
@@ -43,25 +56,53 @@ public class UserService {
         user.setEmail(email);
         user.setRole(role);
         user.setCredits(100000.0);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        dashboardCounters.userCreated(saved.getRole(), saved.getActive());
+        leaderboardService.navChanged(saved.getId());
+        return saved;
     }
     
     public User updateCredits(Long userId, Double amount) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findByIdForUpdate(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
-        user.setCredits(user.getCredits() + amount);
-        return userRepository.save(user);
+        user.setCreditsMicros(user.getCreditsMicros() + Money.of(amount));
+        User saved = userRepository.save(user);
+        userCache.evict(saved.getUsername());
+        pageVersions.userChanged(saved.getId());
+        leaderboardService.navChanged(saved.getId());
+        return saved;
     }
     
     public boolean hasEnoughCredits(User user, Double amount) {
-        return user.getCredits() >= amount;
+        return user.getCreditsMicros() >= Money.of(amount);
     }
     
     public void deleteUser(Long userId) {
-        userRepository.deleteById(userId);
+        userRepository.findById(userId).ifPresent(user -> {
+            userRepository.delete(user);
+            dashboardCounters.userDeleted(user.getRole(), user.getActive());
+        });
+        userCache.evictById(userId);
+        pageVersions.userChanged(userId);
+        leaderboardService.userRemoved(userId);
+    }
+    
+    public User toggleActive(Long userId) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setActive(!user.getActive());
+        User saved = userRepository.save(user);
+        userCache.evict(saved.getUsername());
+        pageVersions.userChanged(saved.getId());
+        dashboardCounters.userActiveChanged(saved.getRole(), saved.getActive());
+        return saved;
     }
     
     public User updateUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.evict(saved.getUsername());
+        pageVersions.userChanged(saved.getId());
+        leaderboardService.navChanged(saved.getId());
+        return saved;
     }
 }
@@ -4,6 +4,7 @@ import com.opencsv.CSVReader;
 import org.springframework.stereotype.Service;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -63,9 +64,13 @@ public class VolatilityAnalyzer {
             return null;
         }
         
+        return analyzeStock(new InputStreamReader(is), symbol);
+    }
+    
+    StockVolatility analyzeStock(Reader csv, String symbol) throws Exception {
         List<Double> closePrices = new ArrayList<>();
         
-        try (CSVReader reader = new CSVReader(new InputStreamReader(is))) {
+        try (CSVReader reader = new CSVReader(csv)) {
             reader.readNext(); // Skip header
             String[] line;
             
@@ -128,7 +133,7 @@ public class VolatilityAnalyzer {
         return !(w1.endDay + gap < w2.startDay || w2.endDay + gap < w1.startDay);
     }
     
-    private double calculateVolatility(List<Double> prices) {
+    double calculateVolatility(List<Double> prices) {
         if (prices.size() < 2) return 0.0;
         
         // Calculate daily returns
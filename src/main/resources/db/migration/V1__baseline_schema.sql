@@ -0,0 +1,130 @@
+-- Baseline schema, matching the JPA entities as of this migration.
+-- Written for MySQL 8; also runs on H2 in MODE=MySQL (the h2-mysql profile).
+-- Stocks, transactions and experiment decisions take pooled ids (allocationSize = 50);
+-- MySQL has no sequences, so Hibernate keeps each counter in a one-row *_seq table.
+
+create table users (
+    id bigint not null auto_increment,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    full_name varchar(255) not null,
+    email varchar(255) not null,
+    role varchar(255) not null,
+    credits double not null,
+    active bit not null,
+    created_at datetime(6),
+    primary key (id),
+    constraint uk_users_username unique (username)
+) engine=InnoDB;
+
+create index idx_users_role_active on users (role, active);
+
+create table stocks (
+    id bigint not null,
+    symbol varchar(255) not null,
+    name varchar(255) not null,
+    current_price double not null,
+    opening_price double,
+    high_price double,
+    low_price double,
+    volume bigint,
+    change_percent double,
+    last_updated datetime(6),
+    active bit not null,
+    primary key (id),
+    constraint uk_stocks_symbol unique (symbol)
+) engine=InnoDB;
+
+create table stocks_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into stocks_seq values (1);
+
+create table portfolio (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    stock_id bigint not null,
+    quantity integer not null,
+    average_buy_price double not null,
+    last_updated datetime(6),
+    primary key (id),
+    constraint uk_portfolio_user_stock unique (user_id, stock_id),
+    constraint fk_portfolio_user foreign key (user_id) references users (id),
+    constraint fk_portfolio_stock foreign key (stock_id) references stocks (id)
+) engine=InnoDB;
+
+create table transactions (
+    id bigint not null,
+    user_id bigint not null,
+    stock_id bigint not null,
+    transaction_type varchar(255) not null,
+    quantity integer not null,
+    price_per_share double not null,
+    total_amount double not null,
+    transaction_date datetime(6) not null,
+    primary key (id),
+    constraint fk_transactions_user foreign key (user_id) references users (id),
+    constraint fk_transactions_stock foreign key (stock_id) references stocks (id)
+) engine=InnoDB;
+
+create index idx_transactions_user_date on transactions (user_id, transaction_date, id);
+
+create table transactions_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into transactions_seq values (1);
+
+create table experiment_stocks (
+    id bigint not null auto_increment,
+    sequence_order integer not null,
+    stock_symbol varchar(255) not null,
+    segment_start_day integer not null,
+    segment_end_day integer not null,
+    csv_file_path varchar(255),
+    primary key (id),
+    constraint uk_experiment_stocks_sequence unique (sequence_order)
+) engine=InnoDB;
+
+create table experiment_sessions (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    start_time datetime(6),
+    end_time datetime(6),
+    completed bit not null,
+    current_stock_index integer,
+    current_day integer,
+    current_capital double,
+    current_shares integer,
+    primary key (id),
+    constraint fk_experiment_sessions_user foreign key (user_id) references users (id)
+) engine=InnoDB;
+
+create index idx_sessions_user_completed on experiment_sessions (user_id, completed);
+
+create table experiment_decisions (
+    id bigint not null,
+    session_id bigint not null,
+    stock_index integer not null,
+    day_number integer not null,
+    action varchar(255) not null,
+    price double not null,
+    quantity integer,
+    capital_before double,
+    capital_after double,
+    shares_before integer,
+    shares_after integer,
+    timestamp datetime(6) not null,
+    think_time_ms bigint,
+    primary key (id),
+    constraint fk_experiment_decisions_session foreign key (session_id) references experiment_sessions (id)
+) engine=InnoDB;
+
+create index idx_decisions_session_stock_day on experiment_decisions (session_id, stock_index, day_number);
+
+create table experiment_decisions_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into experiment_decisions_seq values (1);
@@ -0,0 +1,26 @@
+function confirmDelete(username) {
+    return confirm('Are you sure you want to delete user "' + username + '"? This action cannot be undone and will remove all their data.');
+}
+function confirmToggle(username, isActive) {
+    const action = isActive ? 'deactivate' : 'activate';
+    return confirm('Are you sure you want to ' + action + ' user "' + username + '"?');
+}
+
+function filterUsers() {
+    var input = document.getElementById('searchInput');
+    var filter = input.value.toUpperCase();
+    var table = document.getElementById('usersTable');
+    var tr = table.getElementsByTagName('tr');
+
+    for (var i = 1; i < tr.length; i++) {
+        var td = tr[i].getElementsByTagName('td');
+        var found = false;
+        for (var j = 0; j < 3; j++) {
+            if (td[j] && td[j].textContent.toUpperCase().indexOf(filter) > -1) {
+                found = true;
+                break;
+            }
+        }
+        tr[i].style.display = found ? "" : "none";
+    }
+}
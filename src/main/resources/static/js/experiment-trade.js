@@ -0,0 +1,54 @@
+// Values rendered into the page are passed on <body> data attributes so this file stays static
+var page = document.body.dataset;
+
+// Countdown timer
+let timeRemaining = parseInt(page.timeRemainingMinutes, 10) * 60; // Convert to seconds
+
+function updateTimer() {
+    let hours = Math.floor(timeRemaining / 3600);
+    let minutes = Math.floor((timeRemaining % 3600) / 60);
+    let seconds = timeRemaining % 60;
+
+    let display = `${hours.toString().padStart(2, '0')}:${minutes.toString().padStart(2, '0')}:${seconds.toString().padStart(2, '0')}`;
+    document.getElementById('timer').textContent = display;
+
+    if (timeRemaining < 600) { // Less than 10 minutes
+        document.getElementById('timer').classList.add('warning');
+    }
+
+    if (timeRemaining <= 0) {
+        alert('Time limit exceeded! Experiment ending...');
+        window.location.href = '/experiment/summary';
+    }
+
+    timeRemaining--;
+}
+
+setInterval(updateTimer, 1000);
+
+// Form validation
+function validateBuy() {
+    let capital = parseFloat(page.capital);
+    let price = parseFloat(page.price);
+    let cost = price * 10;
+
+    if (capital < cost) {
+        alert('Insufficient capital! You need ₹' + cost.toFixed(2) + ' but only have ₹' + capital.toFixed(2));
+        return false;
+    }
+    return confirm('Buy 10 shares at ₹' + price.toFixed(2) + ' each?\nTotal cost: ₹' + cost.toFixed(2));
+}
+
+function validateSell() {
+    let shares = parseInt(page.shares, 10);
+    if (shares < 10) {
+        alert('Insufficient shares! You need 10 shares but only have ' + shares);
+        return false;
+    }
+    let price = parseFloat(page.price);
+    return confirm('Sell 10 shares at ₹' + price.toFixed(2) + ' each?\nTotal revenue: ₹' + (price * 10).toFixed(2));
+}
+
+function validateHold() {
+    return confirm('Hold position and advance to next day?');
+}
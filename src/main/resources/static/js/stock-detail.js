@@ -0,0 +1,13 @@
+function updateBuyCost() {
+    var quantity = document.getElementById('buyQuantity').value || 0;
+    var price = parseFloat(document.getElementById('stockPrice').value);
+    var total = quantity * price;
+    document.getElementById('buyCost').textContent = '₹' + total.toLocaleString('en-IN', {minimumFractionDigits: 2, maximumFractionDigits: 2});
+}
+
+function updateSellRevenue() {
+    var quantity = document.getElementById('sellQuantity').value || 0;
+    var price = parseFloat(document.getElementById('stockPrice').value);
+    var total = quantity * price;
+    document.getElementById('sellRevenue').textContent = '₹' + total.toLocaleString('en-IN', {minimumFractionDigits: 2, maximumFractionDigits: 2});
+}
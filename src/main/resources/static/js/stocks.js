@@ -0,0 +1,15 @@
+function filterStocks() {
+    var input = document.getElementById('searchInput');
+    var filter = input.value.toUpperCase();
+    var cards = document.getElementsByClassName('stock-card');
+
+    for (var i = 0; i < cards.length; i++) {
+        var symbol = cards[i].getElementsByClassName('stock-symbol')[0].textContent;
+        var name = cards[i].getElementsByClassName('stock-name')[0].textContent;
+        if (symbol.toUpperCase().indexOf(filter) > -1 || name.toUpperCase().indexOf(filter) > -1) {
+            cards[i].style.display = "";
+        } else {
+            cards[i].style.display = "none";
+        }
+    }
+}
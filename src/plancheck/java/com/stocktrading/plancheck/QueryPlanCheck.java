@@ -0,0 +1,200 @@
+package com.stocktrading.plancheck;
+
+import com.stocktrading.StockTradingApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Query-plan regression check for the hot repository finders: each one must be served by the
+// index declared for it, and an ORDER BY must come from that index without a sort. By default the
+// schema is built both ways the app builds it, each in its own in-memory H2 database: by Hibernate
+// from the entity @Index declarations and by the Flyway migrations (prod profile, H2 in MySQL
+// mode). Given a MySQL URL, user and password it checks that database instead, with the prod
+// profile, so the migrations run first. A dropped, renamed or reordered index fails the check.
+//
+//   mvn -Pplancheck verify
+//   mvn -Pplancheck verify -Dplancheck.args="jdbc:mysql://host:3306/stocktrading user password"
+public class QueryPlanCheck {
+
+    // H2 prints the chosen access path as /* SCHEMA.INDEX: condition */ or /* SCHEMA.INDEX */
+    private static final Pattern ACCESS_PATH = Pattern.compile("/\\*\\s*([\\w.\"]+)(?::|\\s*\\*/)");
+
+    // ...and marks an ORDER BY that the index already satisfies
+    private static final String INDEX_SORTED = "/* index sorted */";
+
+    private static class Check {
+        final String sql;
+        final String table;
+        final String index;
+        final List<String> columns;
+        final boolean ordered;
+
+        Check(String sql, String table, String index, String... columns) {
+            this.sql = sql;
+            this.table = table;
+            this.index = index;
+            this.columns = List.of(columns);
+            this.ordered = sql.contains("ORDER BY");
+        }
+    }
+
+    private static class Plan {
+        String index;
+        boolean sorts;
+        String text;
+    }
+
+    public static void main(String[] args) {
+        // SQL equivalent of each hot finder and the index declared for it
+        List<Check> checks = List.of(
+            new Check("SELECT * FROM experiment_sessions WHERE user_id = 1 AND completed = FALSE",
+                      "experiment_sessions", "idx_sessions_user_completed", "user_id", "completed"),
+            new Check("SELECT * FROM experiment_decisions WHERE session_id = 1 ORDER BY stock_index, day_number",
+                      "experiment_decisions", "idx_decisions_session_stock_day", "session_id", "stock_index", "day_number"),
+            new Check("SELECT * FROM transactions WHERE user_id = 1 ORDER BY transaction_date DESC, id DESC",
+                      "transactions", "idx_transactions_user_date", "user_id", "transaction_date", "id"),
+            new Check("SELECT * FROM portfolio WHERE user_id = 1 AND stock_id = 1",
+                      "portfolio", "uk_portfolio_user_stock", "user_id", "stock_id"),
+            new Check("SELECT * FROM users WHERE role = 'USER'",
+                      "users", "idx_users_role_active", "role", "active"),
+            new Check("SELECT * FROM experiment_stocks WHERE sequence_order = 0",
+                      "experiment_stocks", "uk_experiment_stocks_sequence", "sequence_order"));
+
+        Map<String, String[]> schemas = new LinkedHashMap<>();
+        if (args.length > 0) {
+            if (args.length != 3) {
+                throw new RuntimeException("Usage: QueryPlanCheck [<jdbc url> <user> <password>]");
+            }
+            schemas.put(args[0], new String[] {
+                "--spring.profiles.active=prod",
+                "--spring.datasource.url=" + args[0],
+                "--spring.datasource.username=" + args[1],
+                "--spring.datasource.password=" + args[2]
+            });
+        } else {
+            schemas.put("entity annotations", new String[] {
+                "--spring.datasource.url=jdbc:h2:mem:plancheck_entities"
+            });
+            // As in the h2-mysql profile: the migrations are written for MySQL
+            schemas.put("migrations", new String[] {
+                "--spring.profiles.active=prod,h2-mysql",
+                "--spring.datasource.url=jdbc:h2:mem:plancheck_migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+            });
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, String[]> schema : schemas.entrySet()) {
+            failures.addAll(run(schema.getKey(), schema.getValue(), checks));
+        }
+
+        if (!failures.isEmpty()) {
+            System.err.println("❌ Query plan check failed:");
+            failures.forEach(failure -> System.err.println("    " + failure));
+            System.exit(1);
+        }
+        System.out.println("✓ All hot finders use their declared indexes");
+    }
+
+    private static List<String> run(String schema, String[] properties, List<Check> checks) {
+        List<String> failures = new ArrayList<>();
+        List<String> args = new ArrayList<>(List.of(properties));
+        args.addAll(List.of("--spring.main.web-application-type=none", "--app.montecarlo.paths=1",
+            "--spring.datasource.hikari.maximum-pool-size=2", "--spring.datasource.hikari.minimum-idle=1",
+            "--logging.level.root=WARN", "--logging.level.org.springframework.web=WARN"));
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StockTradingApplication.class)
+                .run(args.toArray(new String[0]))) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            boolean mysql = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql"));
+
+            System.out.println("\n========================================");
+            System.out.println("QUERY PLAN CHECK: " + schema);
+            System.out.println("========================================");
+
+            for (Check check : checks) {
+                Plan plan = mysql ? explainMySql(jdbcTemplate, check) : explainH2(jdbcTemplate, check);
+
+                List<String> problems = new ArrayList<>();
+                String note = null;
+                if (!mysql && !plan.index.equalsIgnoreCase(check.index) && isForeignKeyIndex(jdbcTemplate, check, plan.index)) {
+                    // H2 adds its own single-column index for every foreign key unless one with exactly
+                    // that column exists, and its planner always prefers it to a wider composite. The
+                    // access path and sort can only be checked on MySQL here; H2 still has to have the
+                    // declared index with the declared columns in order.
+                    List<String> columns = indexColumns(jdbcTemplate, check);
+                    if (!columns.equals(check.columns)) {
+                        problems.add("has " + check.index + " on " + columns + " instead of " + check.columns);
+                    }
+                    note = "H2 plans this with its foreign key index " + plan.index
+                        + "; declared index columns checked, access path and sort are checked on MySQL";
+                } else {
+                    if (!plan.index.equalsIgnoreCase(check.index)) {
+                        problems.add("uses " + plan.index + " instead of " + check.index);
+                    }
+                    if (check.ordered && plan.sorts) {
+                        problems.add("sorts instead of reading in index order");
+                    }
+                }
+
+                System.out.println((problems.isEmpty() ? "✓ " : "❌ ") + check.sql);
+                System.out.println("    index: " + plan.index + (check.ordered && !plan.sorts ? " (sorted)" : ""));
+                if (note != null) {
+                    System.out.println("    ⚠ " + note);
+                }
+                if (!problems.isEmpty()) {
+                    System.out.println("    plan: " + plan.text);
+                }
+                for (String problem : problems) {
+                    failures.add(schema + ": " + check.sql + " " + problem);
+                }
+            }
+
+            System.out.println("========================================\n");
+        }
+        return failures;
+    }
+
+    // MySQL reports the index in the key column and a sort as "Using filesort" in Extra
+    private static Plan explainMySql(JdbcTemplate jdbcTemplate, Check check) {
+        Map<String, Object> row = jdbcTemplate.queryForList("EXPLAIN " + check.sql).get(0);
+        Plan plan = new Plan();
+        plan.index = row.get("key") != null ? row.get("key").toString() : "none";
+        Object extra = row.get("Extra");
+        plan.sorts = extra != null && extra.toString().contains("Using filesort");
+        plan.text = row.toString();
+        return plan;
+    }
+
+    private static Plan explainH2(JdbcTemplate jdbcTemplate, Check check) {
+        Plan plan = new Plan();
+        plan.text = String.join(" ", jdbcTemplate.queryForList("EXPLAIN " + check.sql, String.class)).replaceAll("\\s+", " ");
+        Matcher access = ACCESS_PATH.matcher(plan.text);
+        plan.index = access.find() ? access.group(1).replace("\"", "") : "unknown";
+        // Unique constraints are backed by an index named <constraint>_INDEX_<n>
+        plan.index = plan.index.replaceFirst("(?i)^PUBLIC\\.", "").replaceFirst("(?i)_INDEX_\\w+$", "");
+        plan.sorts = !plan.text.contains(INDEX_SORTED);
+        return plan;
+    }
+
+    private static boolean isForeignKeyIndex(JdbcTemplate jdbcTemplate, Check check, String index) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.table_constraints WHERE LOWER(table_name) = ? "
+                + "AND constraint_type = 'FOREIGN KEY' AND LOWER(constraint_name) = ?",
+            Integer.class, check.table, index.toLowerCase());
+        return count != null && count > 0;
+    }
+
+    private static List<String> indexColumns(JdbcTemplate jdbcTemplate, Check check) {
+        return jdbcTemplate.queryForList(
+            "SELECT LOWER(column_name) FROM information_schema.index_columns WHERE LOWER(table_name) = ? "
+                + "AND LOWER(index_name) = ? ORDER BY ordinal_position",
+            String.class, check.table, check.index);
+    }
+}